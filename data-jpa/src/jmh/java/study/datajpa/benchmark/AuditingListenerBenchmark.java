@@ -0,0 +1,89 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Item;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 하나당 AuditingEntityListener(@PrePersist) 비용. DB에는 쓰지 않는다.
+ * 기존 설정은 auditor=random-uuid, cached=false, clockResolution=0ms 이다.
+ * 한 번 호출에 트랜잭션 하나(동기화 범위)에서 BATCH개를 저장하는 상황을 흉내낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class AuditingListenerBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    @Param({"random-uuid", "uuid", "compact", "numeric"})
+    String auditor;
+
+    @Param({"false", "true"})
+    boolean cached;
+
+    @Param({"0ms", "10ms"})
+    String clockResolution;
+
+    private ConfigurableApplicationContext context;
+    private AuditingEntityListener listener;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:auditing;DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=off",
+                        "datajpa.auditing.auditor=" + auditor,
+                        "datajpa.auditing.cached=" + cached,
+                        "datajpa.auditing.clock-resolution=" + clockResolution)
+                .run();
+        AuditingHandler auditingHandler = context.getBean(AuditingHandler.class);
+        listener = new AuditingEntityListener();
+        listener.setAuditingHandler(() -> auditingHandler);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Item touchForCreate() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Item last = null;
+            for (int i = 0; i < BATCH; i++) {
+                last = new Item("item" + i);
+                listener.touchForCreate(last);
+            }
+            return last;
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
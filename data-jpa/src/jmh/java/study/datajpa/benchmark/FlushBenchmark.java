@@ -0,0 +1,97 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트에 회원 rows명이 있을 때 flush 시간. dirty=true면 1%를 변경한 뒤 flush 한다.
+ * 할당량은 -prof gc의 gc.alloc.rate.norm으로 본다.
+ * 호출마다 rows명을 새 영속성 컨텍스트에 읽어야 하므로 Level.Invocation setup을 쓴다. (flush가 ms 단위라 오차는 작다)
+ * 향상 후: ./gradlew jmh -PjmhIncludes=FlushBenchmark
+ * 향상 전: ./gradlew clean jmh -PjmhIncludes=FlushBenchmark -PnoEnhance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlushBenchmark {
+
+    @Param({"10000", "50000", "100000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean dirty;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private List<Member> loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:flush-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        emf = context.getBean(EntityManagerFactory.class);
+
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("flush" + i, i % 100, null));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        loaded = em.createQuery("select m from Member m", Member.class).getResultList();
+        if (dirty) {
+            for (int i = 0; i < loaded.size(); i += 100) {
+                loaded.get(i).setUsername(loaded.get(i).getUsername() + "x");
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        em.getTransaction().rollback(); // 변경은 남기지 않는다
+        em.close();
+    }
+
+    @Benchmark
+    public List<Member> flush() {
+        em.flush();
+        return loaded;
+    }
+}
@@ -0,0 +1,95 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 여러 워커가 동시에 회원 큐에서 CLAIM_SIZE명씩 가져갈 때 SKIP LOCKED(claimNextMembers)와
+ * 블로킹 PESSIMISTIC_WRITE(select ... for update)의 처리량. 워커 수는 -t로 바꾼다. (커넥션 풀 40보다 작아야 한다)
+ * 호출마다 트랜잭션을 롤백해서 claim을 되돌리므로 큐가 비지 않는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class MemberClaimBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int CLAIM_SIZE = 10;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:claim;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=40",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("claim" + i, i % 100, null));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> skipLocked() {
+        return claim(() -> memberRepository.claimNextMembers(CLAIM_SIZE));
+    }
+
+    @Benchmark
+    public List<Member> blockingForUpdate() {
+        return claim(() -> em.createQuery("select m from Member m where m.claimedAt is null order by m.id", Member.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(CLAIM_SIZE)
+                .getResultList());
+    }
+
+    private List<Member> claim(Supplier<List<Member>> claim) {
+        return transactionTemplate.execute(status -> {
+            List<Member> claimed = claim.get();
+            status.setRollbackOnly(); // claimedAt과 잠금을 되돌린다
+            return claimed;
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.convention.MemberService;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 소수의 회원을 여러 스레드가 동시에 수정할 때 @Version + 재시도와 PESSIMISTIC_WRITE의 처리량.
+ * hotMembers를 줄일수록 경합이 심해진다. 스레드 수는 -t로 바꾼다. (커넥션 풀 40보다 작아야 한다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class MemberLockingBenchmark {
+
+    @Param({"1", "4", "16"})
+    int hotMembers;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:locking;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=40",
+                        "datajpa.retry.max-attempts=100", // 경합이 심해도 재시도 소진으로 실패하지 않게
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+        memberService = context.getBean(MemberService.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        ids = new ArrayList<>();
+        for (int i = 0; i < hotMembers; i++) {
+            ids.add(memberRepository.save(new Member("hot" + i, 10, null)).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public void optimistic() {
+        memberService.changeUsername(randomId(), "optimistic" + System.nanoTime());
+    }
+
+    @Benchmark
+    public void pessimistic() {
+        Long id = randomId();
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Member.class, id, LockModeType.PESSIMISTIC_WRITE).setUsername("pessimistic" + System.nanoTime()));
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
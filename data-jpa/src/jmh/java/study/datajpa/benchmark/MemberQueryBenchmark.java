@@ -0,0 +1,146 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 쿼리 방식별(메소드 이름, @Query, NamedQuery, @EntityGraph/fetch join, DTO, 순수 JPA) 처리량/지연시간/할당량.
+ * 임베디드(in-memory) H2에 rows 만큼 회원을 넣고 측정한다. 전체 조회 벤치마크는 rows에 비례한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberQueryBenchmark {
+
+    private static final int TEAMS = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAMS; i++) {
+            teams.add(new Team("team" + i));
+        }
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("member" + i, i % 100, teams.get(i % TEAMS)));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object derivedQuery() {
+        return tx(() -> memberRepository.findByUsernameAndAgeGreaterThan(randomUsername(), 0));
+    }
+
+    @Benchmark
+    public Object jpqlQuery() {
+        int i = randomIndex();
+        return tx(() -> memberRepository.findUser("member" + i, i % 100));
+    }
+
+    @Benchmark
+    public Object namedQuery() {
+        return tx(() -> em.createNamedQuery("Member.findByUsername", Member.class)
+                .setParameter("username", randomUsername())
+                .getResultList());
+    }
+
+    @Benchmark
+    public Object entityGraph() {
+        return tx(() -> touchTeams(memberRepository.findMemberEntityGraph()));
+    }
+
+    @Benchmark
+    public Object fetchJoin() {
+        return tx(() -> touchTeams(memberRepository.findMemberFetchJoin()));
+    }
+
+    @Benchmark
+    public Object findMemberDto() {
+        return tx(() -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public Object plainJpaFindByUsernameAndAgeGreaterThan() {
+        return tx(() -> memberJpaRepository.findByUsernameAndAgeGreaterThan(randomUsername(), 0));
+    }
+
+    @Benchmark
+    public Object plainJpaFindByPage() {
+        return tx(() -> memberJpaRepository.findByPage(randomIndex() % 100, 0, 10));
+    }
+
+    @Benchmark
+    public Object plainJpaFindAll() {
+        return tx(() -> memberJpaRepository.findAll().size());
+    }
+
+    private Object tx(Supplier<Object> query) {
+        // 트랜잭션마다 영속성 컨텍스트가 새로 만들어진다
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    private List<Member> touchTeams(List<Member> members) {
+        members.forEach(member -> member.getTeam().getName());
+        return members;
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    private String randomUsername() {
+        return "member" + randomIndex();
+    }
+}
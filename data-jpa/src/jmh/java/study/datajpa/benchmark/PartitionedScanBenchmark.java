@@ -0,0 +1,90 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberPartitionScanner;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파티션 수별 전체 스캔/카운트 시간. partitions=1 결과가 단일 커넥션 기준이고, 배율은 그것과 비교해서 본다.
+ * 파티션 수는 코어 수와 커넥션 풀(64)보다 크지 않게 잡는다.
+ * ./gradlew jmh -PjmhIncludes=PartitionedScanBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionedScanBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"1", "2", "4", "8"})
+    int partitions;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberPartitionScanner memberPartitionScanner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:partition-scan;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=64",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        memberPartitionScanner = context.getBean(MemberPartitionScanner.class);
+
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("scan" + i, i % 100, null));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public long scanUnordered() {
+        return memberPartitionScanner.scan(partitions, stream -> stream.unordered()
+                .mapToLong(member -> member.getUsername().length())
+                .sum());
+    }
+
+    @Benchmark
+    public long scanOrdered() {
+        return memberPartitionScanner.scan(partitions, stream -> {
+            long[] rows = new long[1];
+            stream.forEachOrdered(member -> rows[0]++);
+            return rows[0];
+        });
+    }
+
+    @Benchmark
+    public long count() {
+        return memberPartitionScanner.count(partitions);
+    }
+}
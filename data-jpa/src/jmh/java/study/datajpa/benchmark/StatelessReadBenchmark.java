@@ -0,0 +1,116 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 전체 회원을 읽어서 집계할 때 finder별 시간과 할당량(-prof gc의 gc.alloc.rate.norm).
+ * 영속성 컨텍스트에 쌓이는 엔티티/스냅샷은 할당량 차이로 드러난다.
+ * ./gradlew jmh -PjmhIncludes=StatelessReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatelessReadBenchmark {
+
+    private static final int TEAMS = 100;
+
+    @Param({"100000", "1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TeamRepository teamRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:stateless-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        teamRepository = context.getBean(TeamRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAMS; i++) {
+            teams.add(new Team("statelessTeam" + i));
+        }
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("stateless" + i, i % 100, teams.get(i % TEAMS)));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public long findAll() {
+        return tx(() -> consume(memberRepository.findAll().stream().map(Member::getUsername)));
+    }
+
+    @Benchmark
+    public long findMemberFetchJoin() {
+        return tx(() -> consume(memberRepository.findMemberFetchJoin().stream().map(member -> member.getTeam().getName())));
+    }
+
+    @Benchmark
+    public long streamMemberDto() {
+        return tx(() -> {
+            try (Stream<MemberDto> stream = memberRepository.streamMemberDto()) {
+                return consume(stream.map(MemberDto::getUsername));
+            }
+        });
+    }
+
+    @Benchmark
+    public long streamAllMemberDto() {
+        // StatelessSession이 트랜잭션을 따로 연다
+        try (Stream<MemberDto> stream = memberRepository.streamAllMemberDto()) {
+            return consume(stream.map(MemberDto::getUsername));
+        }
+    }
+
+    private long tx(Supplier<Long> read) {
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    private static long consume(Stream<String> values) {
+        long[] rows = new long[1];
+        values.forEach(value -> rows[0]++); // count()는 크기를 아는 스트림이면 원소를 건너뛴다
+        return rows[0];
+    }
+}
@@ -2,23 +2,13 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.data.domain.AuditorAware;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
-
-import java.util.Optional;
-import java.util.UUID;
+import org.springframework.retry.annotation.EnableRetry;
 
 @SpringBootApplication
-@EnableJpaAuditing
+@EnableRetry
 public class DataJpaApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(DataJpaApplication.class, args);
     }
-
-    @Bean
-    public AuditorAware<String> auditorProvider(){
-        return () -> Optional.of(UUID.randomUUID().toString());
-    }
 }
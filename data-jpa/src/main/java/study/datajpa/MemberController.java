@@ -5,11 +5,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.KeysetSlice;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberUsernameCache;
 
 import javax.annotation.PostConstruct;
 
@@ -17,17 +23,37 @@ import javax.annotation.PostConstruct;
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_KEYSET_SIZE = 2000;
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberUsernameCache memberUsernameCache;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id){
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+        return memberUsernameCache.get(id).orElseThrow();
     }
 
     @GetMapping("members")
     public Page<Member> list(@PageableDefault(size = 5, sort = "username") Pageable pageable){
-        return memberRepository.findAll(pageable);
+        return memberRepository.findAllWithCachedCount(pageable);
+    }
+
+    @GetMapping("members/keyset")
+    public KeysetSlice<Member> keysetList(@RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", defaultValue = "5") int size){
+        return memberRepository.findAllByKeyset(cursor, Math.min(size, MAX_KEYSET_SIZE));
+    }
+
+    @GetMapping("members/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format){
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> memberExportService.export(exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + exportFormat.getExtension())
+                .body(body);
     }
 
 //    @PostConstruct
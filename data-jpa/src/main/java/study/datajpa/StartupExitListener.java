@@ -0,0 +1,26 @@
+package study.datajpa;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * datajpa.startup.exit-after-ready=true 이면 시작이 끝나자마자 종료한다.
+ * AppCDS 아카이브를 만들 때(./gradlew cdsArchive) 시작 경로에서 로드된 클래스만 덤프하기 위해 쓴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.startup.exit-after-ready", havingValue = "true")
+public class StartupExitListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("started in {} ms (JVM uptime), exiting", ManagementFactory.getRuntimeMXBean().getUptime());
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
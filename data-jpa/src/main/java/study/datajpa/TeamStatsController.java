@@ -0,0 +1,46 @@
+package study.datajpa;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.AgeBucketDto;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.dto.TeamSummaryDto;
+import study.datajpa.repository.TeamJpaRepository;
+import study.datajpa.repository.TeamMemberSummaryMaintainer;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamStatsController {
+
+    private final TeamJpaRepository teamJpaRepository;
+    private final ObjectProvider<TeamMemberSummaryMaintainer> teamMemberSummary;
+
+    @GetMapping("teams/stats")
+    public List<TeamStatsDto> stats(){
+        return teamJpaRepository.findStats();
+    }
+
+    @GetMapping("teams/stats/age-histogram")
+    public List<AgeBucketDto> ageHistogram(@RequestParam(value = "width", defaultValue = "10") int width){
+        if (width < 1 || width > 200) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "width는 1~200 사이여야 합니다");
+        }
+        return teamJpaRepository.findAgeHistogram(width);
+    }
+
+    // datajpa.team-summary.enabled=true 일 때만. member 테이블을 읽지 않는다
+    @GetMapping("teams/stats/summary")
+    public List<TeamSummaryDto> summary(){
+        if (teamMemberSummary.getIfAvailable() == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "team summary가 꺼져 있습니다");
+        }
+        return teamJpaRepository.findSummaries();
+    }
+}
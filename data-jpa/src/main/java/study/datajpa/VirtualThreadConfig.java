@@ -0,0 +1,52 @@
+package study.datajpa;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * datajpa.virtual-threads.enabled=true 이면 Tomcat 요청을 가상 스레드에서 처리한다. (JDK 21 이상에서 실행)
+ * 가상 스레드는 사실상 무제한이므로 /members 요청을 커넥션 풀 크기만큼만 동시에 들여보낸다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutorCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConnectionPoolBackpressureFilter> connectionPoolBackpressureFilter(
+            DataSource dataSource,
+            @Value("${datajpa.virtual-threads.acquire-timeout:1s}") Duration acquireTimeout) throws SQLException {
+        // OSIV로 요청 하나가 커넥션 하나를 끝까지 잡으므로 허용 동시 요청 수 = 풀 크기
+        int permits = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+
+        FilterRegistrationBean<ConnectionPoolBackpressureFilter> registration =
+                new FilterRegistrationBean<>(new ConnectionPoolBackpressureFilter(permits, acquireTimeout));
+        registration.addUrlPatterns("/members", "/members/*");
+        return registration;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        // Java 17로 컴파일하므로 JDK 21 API는 리플렉션으로 호출한다
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("가상 스레드는 JDK 21 이상에서만 사용할 수 있습니다", e);
+        }
+    }
+}
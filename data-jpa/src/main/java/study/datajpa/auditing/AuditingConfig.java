@@ -0,0 +1,37 @@
+package study.datajpa.auditing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * BaseEntity(@CreatedBy 등)와 JpaBaseEntity(@PrePersist)가 쓰는 감사자와 시각 설정.
+ * datajpa.auditing.clock-resolution이 0보다 크면 두 쪽 모두 {@link CoarseClock}을 쓴다.
+ */
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class AuditingConfig {
+
+    @Bean
+    public CoarseClock coarseClock(@Value("${datajpa.auditing.clock-resolution:0ms}") Duration clockResolution) {
+        return new CoarseClock(clockResolution);
+    }
+
+    @Bean
+    public AuditorAware<String> auditorProvider(
+            @Value("${datajpa.auditing.auditor:uuid}") AuditorIdGenerator generator,
+            @Value("${datajpa.auditing.cached:true}") boolean cached) {
+        return new CachedAuditorAware(generator, cached);
+    }
+
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider(CoarseClock coarseClock) {
+        return () -> Optional.of(coarseClock.now());
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.auditing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 감사자(auditor) ID 생성 방식.
+ * 요청/트랜잭션마다 하나씩 만들어지므로 SecureRandom이나 공유 카운터에서 경합이 나지 않도록 한다.
+ */
+public enum AuditorIdGenerator {
+
+    /** 기존 방식. UUID.randomUUID()는 SecureRandom을 거친다 */
+    RANDOM_UUID {
+        @Override
+        public String next() {
+            return java.util.UUID.randomUUID().toString(); // UUID 상수와 이름이 겹친다
+        }
+    },
+
+    /** 같은 36자 UUID 형식이지만 스레드별 ThreadLocalRandom으로 만든다 */
+    UUID {
+        @Override
+        public String next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long msb = (random.nextLong() & ~0xF000L) | 0x4000L; // version 4
+            long lsb = (random.nextLong() & ~(0xCL << 60)) | (0x8L << 60); // IETF variant
+            return new java.util.UUID(msb, lsb).toString();
+        }
+    },
+
+    /** JVM별 노드 접두사 + 36진수 순번. 10자 안팎 */
+    COMPACT {
+        @Override
+        public String next() {
+            return NODE + '-' + Long.toString(Sequence.next(), Character.MAX_RADIX);
+        }
+    },
+
+    /** 숫자 순번. 노드 하나에서만 유일하므로 단일 인스턴스 또는 로컬 분석용 */
+    NUMERIC {
+        @Override
+        public String next() {
+            return Long.toString(Sequence.next());
+        }
+    };
+
+    private static final String NODE =
+            Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), Character.MAX_RADIX);
+
+    public abstract String next();
+
+    /**
+     * 전역 카운터에서 스레드마다 BLOCK 개씩 떼어 가서 CAS 경합을 BLOCK분의 1로 줄인다.
+     * 순번은 유일하지만 스레드 사이에서 단조 증가하지는 않는다.
+     */
+    private static final class Sequence {
+
+        private static final int BLOCK = 1024;
+        private static final AtomicLong GLOBAL = new AtomicLong();
+        private static final ThreadLocal<long[]> LOCAL = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+        static long next() {
+            long[] range = LOCAL.get(); // [다음 값, 끝(미포함)]
+            if (range[0] == range[1]) {
+                range[0] = GLOBAL.getAndAdd(BLOCK);
+                range[1] = range[0] + BLOCK;
+            }
+            return range[0]++;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.auditing;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * 감사자를 요청(없으면 트랜잭션) 단위로 한 번만 만들어 재사용한다.
+ * 벌크 저장 시 엔티티마다 ID를 새로 만들지 않고, 모든 행이 같은 String 인스턴스를 참조한다.
+ * 요청도 트랜잭션도 없으면 호출할 때마다 새로 만든다.
+ */
+public class CachedAuditorAware implements AuditorAware<String> {
+
+    private static final String KEY = CachedAuditorAware.class.getName() + ".AUDITOR";
+
+    private final AuditorIdGenerator generator;
+    private final boolean cached;
+
+    public CachedAuditorAware(AuditorIdGenerator generator, boolean cached) {
+        this.generator = generator;
+        this.cached = cached;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        if (!cached) {
+            return Optional.of(generator.next());
+        }
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            String auditor = (String) request.getAttribute(KEY, RequestAttributes.SCOPE_REQUEST);
+            if (auditor == null) {
+                auditor = generator.next();
+                request.setAttribute(KEY, auditor, RequestAttributes.SCOPE_REQUEST);
+            }
+            return Optional.of(auditor);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String auditor = (String) TransactionSynchronizationManager.getResource(KEY);
+            if (auditor == null) {
+                auditor = generator.next();
+                TransactionSynchronizationManager.bindResource(KEY, auditor);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+                    }
+                });
+            }
+            return Optional.of(auditor);
+        }
+
+        return Optional.of(generator.next());
+    }
+}
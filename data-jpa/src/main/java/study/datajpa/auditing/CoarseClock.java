@@ -0,0 +1,47 @@
+package study.datajpa.auditing;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 감사 시각용 저해상도 시계. 백그라운드 스레드가 resolution 간격으로 현재 시각을 갱신하고
+ * now()는 volatile 필드만 읽는다. resolution이 0이면 LocalDateTime.now()와 같다.
+ * 같은 resolution 안에서 저장된 행은 같은 시각(같은 인스턴스)을 갖는다.
+ * {@link AuditingConfig}의 빈으로 만들어지고 컨텍스트가 닫힐 때 함께 멈춘다.
+ */
+public class CoarseClock implements AutoCloseable {
+
+    private final ScheduledExecutorService ticker;
+    private volatile LocalDateTime current;
+
+    public CoarseClock(Duration resolution) {
+        if (resolution.isZero()) {
+            ticker = null;
+            return;
+        }
+        current = LocalDateTime.now();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = resolution.toNanos();
+        ticker.scheduleAtFixedRate(() -> current = LocalDateTime.now(), nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public LocalDateTime now() {
+        LocalDateTime now = current;
+        return now != null ? now : LocalDateTime.now();
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        current = null;
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.changelog;
+
+/**
+ * 버퍼가 가득 찼을 때 커밋한 스레드가 어떻게 할지.
+ */
+public enum BackpressurePolicy {
+
+    /** offer-timeout까지 기다리고 그래도 자리가 없으면 버린다. 커밋이 느려질 수 있다 */
+    BLOCK,
+
+    /** 새 이벤트를 버린다. 커밋 지연 없음 */
+    DROP_NEWEST,
+
+    /** 가장 오래된 이벤트를 버리고 새 이벤트를 넣는다 */
+    DROP_OLDEST,
+
+    /** 커밋한 스레드가 직접 sink에 쓴다. 유실은 없지만 쓰기 지연이 커밋 경로로 들어온다 */
+    CALLER_RUNS
+}
@@ -0,0 +1,25 @@
+package study.datajpa.changelog;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 커밋된 엔티티 변경 하나. payload는 "속성=값" 목록이고 수정이면 바뀐 속성만 담는다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ChangeEvent {
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final String entityType;
+    private final String entityId;
+    private final Operation operation;
+    private final String changedBy;
+    private final LocalDateTime changedAt;
+    private final String payload;
+}
@@ -0,0 +1,52 @@
+package study.datajpa.changelog;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 추가 전용 변경 이력. 쓰기는 {@link JdbcChangeLogSink}가 JDBC 배치로 하고 JPA로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "change_log", indexes = @Index(name = "IDX_CHANGE_LOG_ENTITY", columnList = "entity_type, entity_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChangeLog {
+
+    public static final int PAYLOAD_LENGTH = 4000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeEvent.Operation operation;
+
+    private String changedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    @Column(length = PAYLOAD_LENGTH) // 넘는 부분은 ChangeLogEventListener가 잘라낸다
+    private String payload;
+}
@@ -0,0 +1,60 @@
+package study.datajpa.changelog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.auditing.CoarseClock;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * datajpa.change-log.enabled=true 이면 Member/Team/Item 변경을 비동기로 change_log 테이블(또는 파일)에 남긴다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.change-log.enabled", havingValue = "true")
+public class ChangeLogConfig {
+
+    @Bean
+    public ChangeLogSink changeLogSink(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectMapper objectMapper,
+                                       @Value("${datajpa.change-log.sink:table}") String sink,
+                                       @Value("${datajpa.change-log.file:change-log.jsonl}") Path file,
+                                       @Value("${datajpa.change-log.fsync:false}") boolean fsync) throws IOException {
+        if ("file".equals(sink)) {
+            return new FileChangeLogSink(objectMapper, file, fsync);
+        }
+        return new JdbcChangeLogSink(jdbcTemplate, transactionManager);
+    }
+
+    // sink에 의존하므로 sink보다 먼저 close되어 버퍼를 비운다
+    @Bean
+    public ChangeLogWriter changeLogWriter(ChangeLogSink changeLogSink,
+                                           @Value("${datajpa.change-log.capacity:65536}") int capacity,
+                                           @Value("${datajpa.change-log.batch-size:500}") int batchSize,
+                                           @Value("${datajpa.change-log.flush-interval:1s}") Duration flushInterval,
+                                           @Value("${datajpa.change-log.backpressure:block}") BackpressurePolicy policy,
+                                           @Value("${datajpa.change-log.offer-timeout:100ms}") Duration offerTimeout) {
+        return new ChangeLogWriter(changeLogSink, capacity, batchSize, flushInterval, policy, offerTimeout);
+    }
+
+    @Bean
+    public ChangeLogEventListener changeLogEventListener(ObjectProvider<ChangeLogWriter> changeLogWriter,
+                                                         AuditorAware<String> auditorProvider,
+                                                         CoarseClock coarseClock,
+                                                         @Value("${datajpa.change-log.entities:Member,Team,Item}") Set<String> entities,
+                                                         @Value("${datajpa.change-log.flush-on-commit:true}") boolean flushOnCommit,
+                                                         @Value("${datajpa.change-log.max-payload-length:4000}") int maxPayloadLength) {
+        return new ChangeLogEventListener(changeLogWriter, auditorProvider, coarseClock, entities, flushOnCommit,
+                maxPayloadLength);
+    }
+}
@@ -0,0 +1,200 @@
+package study.datajpa.changelog;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.auditing.CoarseClock;
+import study.datajpa.repository.EventListenerContributor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 대상 엔티티의 insert/update/delete를 {@link ChangeEvent}로 바꿔 트랜잭션마다 모아 두고,
+ * 커밋된 뒤에만 {@link ChangeLogWriter}에 넘긴다. 롤백되면 버린다.
+ * 이벤트는 flush 시점에 만들어지므로 payload는 DB에 쓰인 값과 같다.
+ * payload가 maxPayloadLength(최대 {@link ChangeLog#PAYLOAD_LENGTH})를 넘으면 잘라내고 끝에 "..."를 붙인다.
+ */
+public class ChangeLogEventListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener, EventListenerContributor {
+
+    private static final String TRUNCATED = "...";
+
+    private final ObjectProvider<ChangeLogWriter> writer; // sink가 트랜잭션 매니저(= EMF)에 의존한다
+    private final AuditorAware<String> auditorAware;
+    private final CoarseClock coarseClock;
+    private final Set<String> entityNames;
+    private final boolean flushOnCommit;
+    private final int maxPayloadLength;
+
+    public ChangeLogEventListener(ObjectProvider<ChangeLogWriter> writer, AuditorAware<String> auditorAware,
+                                  CoarseClock coarseClock, Set<String> entityNames, boolean flushOnCommit,
+                                  int maxPayloadLength) {
+        if (maxPayloadLength <= TRUNCATED.length() || maxPayloadLength > ChangeLog.PAYLOAD_LENGTH) {
+            throw new IllegalArgumentException("maxPayloadLength는 " + TRUNCATED.length() + "보다 크고 "
+                    + ChangeLog.PAYLOAD_LENGTH + " 이하여야 합니다");
+        }
+        this.writer = writer;
+        this.auditorAware = auditorAware;
+        this.coarseClock = coarseClock;
+        this.entityNames = entityNames;
+        this.flushOnCommit = flushOnCommit;
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    @Override
+    public void contribute(EventListenerRegistry registry) {
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        capture(event.getPersister(), event.getId(), ChangeEvent.Operation.INSERT,
+                event.getState(), null, event.getSession());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        capture(event.getPersister(), event.getId(), ChangeEvent.Operation.UPDATE,
+                event.getState(), event.getDirtyProperties(), event.getSession());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        capture(event.getPersister(), event.getId(), ChangeEvent.Operation.DELETE,
+                null, null, event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void capture(EntityPersister persister, Serializable id, ChangeEvent.Operation operation,
+                         Object[] state, int[] dirty, SharedSessionContractImplementor session) {
+        String entityType = persister.getMappedClass().getSimpleName();
+        if (!entityNames.contains(entityType)) {
+            return;
+        }
+
+        ChangeEvent event = new ChangeEvent(entityType, String.valueOf(id), operation,
+                auditorAware.getCurrentAuditor().orElse(null), coarseClock.now(),
+                state == null ? null : payload(persister, state, dirty, session));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writer.getObject().offer(List.of(event));
+            return;
+        }
+        pending(session).add(event);
+    }
+
+    /**
+     * 세션(= 트랜잭션)마다 하나. REQUIRES_NEW로 안쪽 트랜잭션이 열려도 this로 묶은 리소스는 내려놓지 않으므로
+     * 세션별로 나눠서 안쪽 트랜잭션의 변경이 바깥 트랜잭션의 커밋을 따라가지 않게 한다.
+     */
+    private List<ChangeEvent> pending(SharedSessionContractImplementor session) {
+        @SuppressWarnings("unchecked")
+        Map<SharedSessionContractImplementor, List<ChangeEvent>> bySession =
+                (Map<SharedSessionContractImplementor, List<ChangeEvent>>) TransactionSynchronizationManager.getResource(this);
+        if (bySession == null) {
+            bySession = new IdentityHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bySession);
+        }
+        List<ChangeEvent> events = bySession.get(session);
+        if (events != null) {
+            return events;
+        }
+
+        List<ChangeEvent> created = new ArrayList<>();
+        bySession.put(session, created);
+        Map<SharedSessionContractImplementor, List<ChangeEvent>> registered = bySession;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writer.getObject().offer(created);
+                if (flushOnCommit) {
+                    writer.getObject().requestFlush();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                registered.remove(session);
+                if (registered.isEmpty()) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogEventListener.this);
+                }
+            }
+        });
+        return created;
+    }
+
+    private String payload(EntityPersister persister, Object[] state, int[] dirty,
+                           SharedSessionContractImplementor session) {
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (types[i].isCollectionType() || dirty != null && !contains(dirty, i)) {
+                continue;
+            }
+            if (payload.length() > 0) {
+                payload.append(", ");
+            }
+            payload.append(names[i]).append('=').append(value(state[i], types[i], session));
+            if (payload.length() > maxPayloadLength) {
+                break; // 어차피 잘라낸다
+            }
+        }
+        return truncate(payload);
+    }
+
+    private String truncate(StringBuilder payload) {
+        if (payload.length() <= maxPayloadLength) {
+            return payload.toString();
+        }
+        int end = maxPayloadLength - TRUNCATED.length();
+        if (Character.isHighSurrogate(payload.charAt(end - 1))) {
+            end--; // 서로게이트 쌍을 반으로 자르지 않는다
+        }
+        return payload.substring(0, end) + TRUNCATED;
+    }
+
+    private Object value(Object value, Type type, SharedSessionContractImplementor session) {
+        if (value == null || !type.isEntityType()) {
+            return value;
+        }
+        // 연관 엔티티는 id만 남긴다. 프록시를 초기화하지 않는다
+        if (value instanceof HibernateProxy) {
+            return ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+        }
+        return session.getContextEntityIdentifier(value);
+    }
+
+    private static boolean contains(int[] indexes, int index) {
+        for (int i : indexes) {
+            if (i == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
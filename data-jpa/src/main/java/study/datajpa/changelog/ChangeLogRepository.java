@@ -0,0 +1,10 @@
+package study.datajpa.changelog;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLog, Long> {
+
+    List<ChangeLog> findByEntityTypeAndEntityIdOrderByIdAsc(String entityType, String entityId);
+}
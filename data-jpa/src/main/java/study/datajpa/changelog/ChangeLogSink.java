@@ -0,0 +1,11 @@
+package study.datajpa.changelog;
+
+import java.util.List;
+
+/**
+ * {@link ChangeLogWriter}가 모은 배치를 실제로 기록하는 곳.
+ */
+public interface ChangeLogSink {
+
+    void write(List<ChangeEvent> events) throws Exception;
+}
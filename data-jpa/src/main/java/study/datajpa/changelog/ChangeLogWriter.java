@@ -0,0 +1,167 @@
+package study.datajpa.changelog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 커밋된 {@link ChangeEvent}를 고정 크기 링 버퍼(ArrayBlockingQueue)에 모았다가
+ * 백그라운드 스레드 하나가 batch-size 단위로 {@link ChangeLogSink}에 쓴다.
+ * 버퍼에 batch-size 이상 쌓이거나, flush-interval이 지나거나, 커밋 시 flush를 요청하면 쓴다.
+ *
+ * <p>보장 범위 (at-most-once):
+ * <ul>
+ *     <li>롤백된 트랜잭션의 변경은 기록하지 않는다. 커밋 후에만 버퍼에 들어간다.</li>
+ *     <li>커밋과 기록은 원자적이지 않다. 프로세스가 죽으면(kill -9, OOM, 전원) 버퍼에 남은 이벤트와
+ *     쓰던 배치, 최대 capacity + batch-size 개가 사라진다. 정상 종료 시에는 close()가 버퍼를 끝까지 비운다.</li>
+ *     <li>sink 쓰기가 실패한 배치는 재시도하지 않고 버린다. (datajpa.change-log.failed 카운터)</li>
+ *     <li>DROP_* 정책이거나 BLOCK에서 시간이 초과되면 버린다. (datajpa.change-log.dropped 카운터)</li>
+ *     <li>쓰기 스레드가 하나이므로 버퍼에 들어간 순서대로 기록된다. CALLER_RUNS로 직접 쓴 이벤트는 예외.</li>
+ *     <li>호출한 스레드가 직접 쓸 때(CALLER_RUNS, close() 이후)는 afterCommit 안이므로 sink가 자기 트랜잭션을 열어야 한다.</li>
+ *     <li>JPQL/JDBC 벌크 연산(bulkAgePlus, upsertAll 등)은 엔티티 이벤트가 없으므로 기록되지 않는다.</li>
+ * </ul>
+ * 유실이 허용되지 않는 감사 요구라면 같은 트랜잭션에서 쓰는 Envers류를 써야 한다.
+ */
+@Slf4j
+public class ChangeLogWriter implements MeterBinder, Closeable {
+
+    private final ArrayBlockingQueue<ChangeEvent> buffer;
+    private final ChangeLogSink sink;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BackpressurePolicy policy;
+    private final long offerTimeoutNanos;
+    private final Thread thread;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running = true;
+    private volatile boolean flushRequested;
+
+    public ChangeLogWriter(ChangeLogSink sink, int capacity, int batchSize, Duration flushInterval,
+                           BackpressurePolicy policy, Duration offerTimeout) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.policy = policy;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.thread = new Thread(this::run, "change-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void offer(Collection<ChangeEvent> events) {
+        if (!running || policy == BackpressurePolicy.CALLER_RUNS && buffer.remainingCapacity() < events.size()) {
+            write(new ArrayList<>(events));
+            return;
+        }
+        for (ChangeEvent event : events) {
+            offer(event);
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void offer(ChangeEvent event) {
+        switch (policy) {
+            case BLOCK:
+                try {
+                    if (!buffer.offer(event, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                        dropped.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                if (!buffer.offer(event)) {
+                    write(List.of(event));
+                }
+                break;
+            default:
+                if (!buffer.offer(event)) {
+                    dropped.increment();
+                }
+        }
+    }
+
+    /**
+     * 쓰기 스레드를 깨워 버퍼에 있는 만큼 바로 쓰게 한다. 기다리지 않는다.
+     */
+    public void requestFlush() {
+        flushRequested = true;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        List<ChangeEvent> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            if (running && !flushRequested && buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flushRequested = false;
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ChangeEvent> batch) {
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            failed.add(batch.size());
+            log.error("change log batch of {} events lost", batch.size(), e);
+        }
+    }
+
+    /**
+     * 버퍼를 끝까지 비운 뒤 반환한다. 그 뒤에 들어오는 이벤트는 호출한 스레드가 직접 쓴다.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn("change log writer stopped with {} events unwritten", buffer.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datajpa.change-log.buffered", buffer, ArrayBlockingQueue::size).register(registry);
+        registry.more().counter("datajpa.change-log.written", List.of(), written, LongAdder::doubleValue);
+        registry.more().counter("datajpa.change-log.dropped", List.of(), dropped, LongAdder::doubleValue);
+        registry.more().counter("datajpa.change-log.failed", List.of(), failed, LongAdder::doubleValue);
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.changelog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 로컬 파일에 한 줄에 이벤트 하나씩 JSON으로 덧붙인다. fsync가 켜져 있으면 배치마다 디스크까지 내린다.
+ */
+public class FileChangeLogSink implements ChangeLogSink, Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final boolean fsync;
+
+    public FileChangeLogSink(ObjectMapper objectMapper, Path file, boolean fsync) throws IOException {
+        this.objectMapper = objectMapper;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void write(List<ChangeEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        for (ChangeEvent event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.changelog;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * change_log 테이블에 JDBC 배치 insert. 이 insert는 Hibernate 이벤트를 다시 만들지 않는다.
+ * 배치마다 새 트랜잭션에서 쓴다. CALLER_RUNS나 close() 뒤에는 afterCommit 안에서 호출되는데,
+ * 그때 묶여 있는 커넥션은 이미 커밋이 끝난 트랜잭션의 것이라 거기에 쓰면 커밋되지 않는다.
+ */
+public class JdbcChangeLogSink implements ChangeLogSink {
+
+    private static final String INSERT_SQL = "insert into change_log "
+            + "(entity_type, entity_id, operation, changed_by, changed_at, payload) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcChangeLogSink(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void write(List<ChangeEvent> events) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+                    ps.setString(1, event.getEntityType());
+                    ps.setString(2, event.getEntityId());
+                    ps.setString(3, event.getOperation().name());
+                    ps.setString(4, event.getChangedBy());
+                    ps.setTimestamp(5, Timestamp.valueOf(event.getChangedAt()));
+                    ps.setString(6, event.getPayload());
+                }));
+    }
+}
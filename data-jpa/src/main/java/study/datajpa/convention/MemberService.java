@@ -4,17 +4,36 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
 
 @RequiredArgsConstructor
 @Service
 public class MemberService {
 
-    private MemberRepository memberRepository;
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
 
+    @RetryOnOptimisticLock
     @Transactional
     public MemberCreateResponse createMember(MemberCreateRequest memberCreateRequest){
         Member savedMember = memberRepository.save(memberCreateRequest.toEntity());
         return MemberCreateResponse.of(savedMember);
     }
+
+    @RetryOnOptimisticLock
+    @Transactional
+    public void changeUsername(Long memberId, String username){
+        Member member = memberRepository.findById(memberId).orElseThrow();
+        member.setUsername(username);
+    }
+
+    @RetryOnOptimisticLock
+    @Transactional
+    public void changeTeam(Long memberId, Long teamId){
+        Member member = memberRepository.findById(memberId).orElseThrow();
+        Team team = teamRepository.findById(teamId).orElseThrow();
+        member.changeTeam(team);
+    }
 }
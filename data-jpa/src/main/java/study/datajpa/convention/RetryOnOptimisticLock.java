@@ -0,0 +1,30 @@
+package study.datajpa.convention;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import javax.persistence.OptimisticLockException;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @Version 충돌(낙관적 락 실패) 시 지터가 들어간 지수 백오프로 메소드 전체를 다시 실행한다.
+ * 재시도 advice는 트랜잭션 advice 바깥에서 동작하므로 매 시도가 새 트랜잭션으로 실행된다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        value = {OptimisticLockingFailureException.class, OptimisticLockException.class},
+        maxAttemptsExpression = "${datajpa.retry.max-attempts:5}",
+        backoff = @Backoff(
+                delayExpression = "${datajpa.retry.delay:20}",
+                maxDelayExpression = "${datajpa.retry.max-delay:500}",
+                multiplierExpression = "${datajpa.retry.multiplier:2}",
+                random = true))
+public @interface RetryOnOptimisticLock {
+}
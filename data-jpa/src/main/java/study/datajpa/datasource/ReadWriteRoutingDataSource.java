@@ -0,0 +1,100 @@
+package study.datajpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * @Transactional(readOnly = true) 트랜잭션은 replica로, 나머지는 primary로 보낸다.
+ * <ul>
+ *     <li>트랜잭션 시작 시점에는 readOnly 여부가 아직 정해지지 않으므로 LazyConnectionDataSourceProxy로 감싸서 써야 한다.</li>
+ *     <li>같은 스레드에서 쓰기 트랜잭션이 커밋된 뒤 maxLag 동안은 읽기도 primary로 보낸다. (replica 지연 중 read-your-writes)</li>
+ *     <li>replica 풀이 고갈돼서 커넥션을 못 얻으면 primary로 대신한다.</li>
+ *     <li>커넥션을 얻을 때 정해지므로 세션이 트랜잭션이 끝난 뒤에도 커넥션을 쥐고 있으면 안 된다.
+ *     ({@link ReplicaDataSourceConfig}가 트랜잭션마다 커넥션을 반납하도록 설정한다)</li>
+ * </ul>
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final ThreadLocal<Long> lastWriteAt = new ThreadLocal<>();
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagNanos;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!routeToReplica()) {
+            markWrite();
+            return source.connect(primary);
+        }
+
+        try {
+            return source.connect(replica);
+        } catch (SQLException e) {
+            log.warn("replica connection is not available, falling back to primary: {}", e.getMessage());
+            return source.connect(primary);
+        }
+    }
+
+    private boolean routeToReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        Long writtenAt = lastWriteAt.get();
+        return writtenAt == null || System.nanoTime() - writtenAt > maxLagNanos;
+    }
+
+    private void markWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteAt.set(System.nanoTime());
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
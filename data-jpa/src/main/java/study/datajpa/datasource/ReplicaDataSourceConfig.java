@@ -0,0 +1,63 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * datajpa.replica.enabled=true 이면 spring.datasource(primary) + datajpa.replica(replica) 두 풀을 만들고
+ * {@link ReadWriteRoutingDataSource}로 묶는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datajpa.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${datajpa.replica.max-lag:1s}") Duration maxLag) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, maxLag));
+    }
+
+    /**
+     * Spring은 기본으로 세션이 닫힐 때까지 커넥션을 쥐고 있게 한다(DELAYED_ACQUISITION_AND_HOLD).
+     * open-in-view처럼 한 EntityManager에서 트랜잭션이 여러 번 열리면 첫 트랜잭션이 고른 커넥션(replica일 수 있다)을
+     * 다음 쓰기 트랜잭션도 쓰게 되므로 트랜잭션이 끝날 때마다 반납해서 트랜잭션마다 다시 라우팅한다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
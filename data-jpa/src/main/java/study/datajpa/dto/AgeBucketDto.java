@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀별 나이 히스토그램의 구간 하나. [fromAge, fromAge + width) 나이인 회원 수. 팀이 없는 회원은 teamId null.
+ */
+@Getter
+@ToString
+public class AgeBucketDto {
+
+    private final Long teamId;
+    private final int fromAge;
+    private final long memberCount;
+
+    public AgeBucketDto(Long teamId, Integer fromAge, Long memberCount) {
+        this.teamId = teamId;
+        this.fromAge = fromAge;
+        this.memberCount = memberCount;
+    }
+}
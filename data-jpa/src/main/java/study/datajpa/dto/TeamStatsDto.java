@@ -0,0 +1,28 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 수와 나이 통계. 회원이 없는 팀은 memberCount 0, 나이 값은 null.
+ */
+@Getter
+@ToString
+public class TeamStatsDto {
+
+    private final Long teamId;
+    private final String teamName;
+    private final long memberCount;
+    private final Double averageAge;
+    private final Integer minAge;
+    private final Integer maxAge;
+
+    public TeamStatsDto(Long teamId, String teamName, Long memberCount, Double averageAge, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.averageAge = averageAge;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
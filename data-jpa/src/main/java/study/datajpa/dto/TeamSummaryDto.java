@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * team_member_summary 테이블에서 읽은 팀별 회원 수와 평균 나이.
+ */
+@Getter
+@ToString
+public class TeamSummaryDto {
+
+    private final Long teamId;
+    private final String teamName;
+    private final long memberCount;
+    private final Double averageAge;
+
+    public TeamSummaryDto(Long teamId, String teamName, Long memberCount, Long ageSum) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.averageAge = memberCount == 0 ? null : (double) ageSum / memberCount;
+    }
+}
@@ -4,29 +4,26 @@ package study.datajpa.entity;
 import lombok.Getter;
 
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
-import javax.persistence.PrePersist;
-import javax.persistence.PreUpdate;
 import java.time.LocalDateTime;
 
 @Getter
 @MappedSuperclass
+@EntityListeners(JpaBaseEntityListener.class)
 public class JpaBaseEntity {
 
     @Column(updatable = false)
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
-    @PrePersist
-    public void prePersist(){
-        LocalDateTime now = LocalDateTime.now();
+    public void prePersist(LocalDateTime now){
         this.createdAt = now;
         this.updatedAt = now;
     }
 
-    @PreUpdate
-    public void preUpdate(){
-        this.updatedAt = LocalDateTime.now();
+    public void preUpdate(LocalDateTime now){
+        this.updatedAt = now;
     }
 
 }
@@ -0,0 +1,36 @@
+package study.datajpa.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.auditing.CoarseClock;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+
+/**
+ * {@link JpaBaseEntity}의 생성/수정 시각을 컨텍스트의 {@link CoarseClock}으로 채운다.
+ */
+public class JpaBaseEntityListener {
+
+    // EntityManagerFactory 생성 중에 만들어지므로 순환 참조를 피하려고 지연 조회한다
+    private final ObjectProvider<CoarseClock> coarseClock;
+
+    public JpaBaseEntityListener(ObjectProvider<CoarseClock> coarseClock) {
+        this.coarseClock = coarseClock;
+    }
+
+    @PrePersist
+    public void prePersist(JpaBaseEntity entity) {
+        entity.prePersist(now());
+    }
+
+    @PreUpdate
+    public void preUpdate(JpaBaseEntity entity) {
+        entity.preUpdate(now());
+    }
+
+    private LocalDateTime now() {
+        CoarseClock clock = coarseClock.getIfAvailable();
+        return clock != null ? clock.now() : LocalDateTime.now();
+    }
+}
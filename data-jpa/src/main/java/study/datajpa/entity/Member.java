@@ -1,24 +1,33 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import study.datajpa.repository.MemberUsernameInvalidator;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = @Index(name = "IDX_MEMBER_USERNAME_ID", columnList = "username, MEMBER_ID"))
 @NamedQuery(
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
 )
+@EntityListeners(MemberUsernameInvalidator.class)
 public class Member extends BaseEntity{
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "MEMBER_SEQ")
+    @SequenceGenerator(name = "MEMBER_SEQ", sequenceName = "MEMBER_SEQ", allocationSize = 50)
     @Column(name = "MEMBER_ID")
     private Long id;
 
+    @Version
+    private Long version;
+
     private String username;
 
     private int age;
@@ -27,6 +36,9 @@ public class Member extends BaseEntity{
     @JoinColumn(name = "TEAM_ID")
     private Team team;
 
+    // claimNextMembers로 가져간 시각. null이면 아직 아무 워커도 가져가지 않았다
+    private LocalDateTime claimedAt;
+
     @Builder
     public Member(String username, int age, Team team) {
         this.username = username;
@@ -37,8 +49,16 @@ public class Member extends BaseEntity{
     }
 
     public void changeTeam(Team team) {
+        // 바이트코드 향상(association management)도 같은 일을 하지만, 향상하지 않은 빌드(-PnoEnhance, IDE)에서도
+        // 양쪽이 맞도록 직접 맞춘다. 초기화되지 않은 팀 프록시나 members 컬렉션은 remove/contains가 로딩을 일으키므로
+        // 이전 팀에서는 빼지 않고 새 팀에는 중복 확인 없이 add만 한다
+        if (this.team != null && Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (team != null && !(Hibernate.isInitialized(team.getMembers()) && team.getMembers().contains(this))) {
+            team.getMembers().add(this); // 초기화되지 않은 PersistentBag.add는 로딩하지 않고 쌓아 둔다
+        }
     }
 
     public Team getTeam() {
@@ -48,4 +68,8 @@ public class Member extends BaseEntity{
     public void setUsername(String username) {
         this.username = username;
     }
+
+    public void claim(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
 }
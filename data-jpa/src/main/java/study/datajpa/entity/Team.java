@@ -4,6 +4,10 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -13,15 +17,25 @@ import java.util.List;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+@BatchSize(size = 100) // Member.team 프록시를 in 쿼리로 모아서 초기화
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "TEAM_SEQ")
+    @SequenceGenerator(name = "TEAM_SEQ", sequenceName = "TEAM_SEQ", allocationSize = 50)
     @Column(name = "TEAM_ID")
     private Long id;
 
+    @Version
+    private Long version;
+
     private String name;
 
+    // 역방향 컬렉션은 Member 삭제/팀 변경 때 캐시에서 비워지지 않으므로 2차 캐시에 두지 않는다
+    @BatchSize(size = 100)
+    @OptimisticLock(excluded = true) // 회원이 팀을 옮길 때마다 팀 version이 올라가 충돌하지 않도록
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
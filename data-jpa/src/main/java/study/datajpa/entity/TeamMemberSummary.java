@@ -0,0 +1,33 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 팀별 회원 수/나이 합계 요약. datajpa.team-summary.enabled=true 일 때
+ * TeamMemberSummaryMaintainer가 JDBC로 갱신하고 JPA로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "team_member_summary")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TeamMemberSummary {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(nullable = false)
+    private long memberCount;
+
+    @Column(nullable = false)
+    private long ageSum;
+}
@@ -0,0 +1,61 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 2차 캐시 리전별 hit/miss/eviction 수. 리전 hit/miss/put은 hibernate-micrometer도 내보내지만
+ * eviction은 Caffeine JCache 통계(MBean)에만 있어서 여기서 함께 등록한다.
+ */
+@Slf4j
+@Component
+public class CacheRegionMetrics implements MeterBinder {
+
+    private static final List<String> REGIONS = List.of(
+            "team", "default-query-results-region");
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : REGIONS) {
+            register(registry, region, "hit", "CacheHits");
+            register(registry, region, "miss", "CacheMisses");
+            register(registry, region, "eviction", "CacheEvictions");
+        }
+    }
+
+    private void register(MeterRegistry registry, String region, String result, String attribute) {
+        FunctionCounter.builder("datajpa.cache.region", region, r -> read(r, attribute))
+                .tag("region", region)
+                .tag("result", result)
+                .description("Hibernate second-level cache region statistics")
+                .register(registry);
+    }
+
+    private double read(String region, String attribute) {
+        try {
+            // 캐시는 첫 사용 시점에 만들어지므로 조회할 때마다 찾는다
+            Set<ObjectName> names = mBeanServer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            double total = 0;
+            for (ObjectName name : names) {
+                total += ((Number) mBeanServer.getAttribute(name, attribute)).doubleValue();
+            }
+            return total;
+        } catch (JMException e) {
+            log.debug("cache statistics for region {} are not available", region, e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.EventListenerContributor;
+
+@Component
+@RequiredArgsConstructor
+public class EntityLoadMetricsListener implements PostLoadEventListener, EventListenerContributor {
+
+    private final RepositoryMetrics metrics;
+
+    @Override
+    public void contribute(EventListenerRegistry registry) {
+        registry.appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        metrics.onEntityLoaded();
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.HibernateException;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.EventListenerContributor;
+
+/**
+ * 기본 flush 리스너 앞뒤에 등록해서 flush 시간과 트랜잭션 종료 직전 flush한 엔티티 수를 {@link RepositoryMetrics}에 넘긴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlushMetricsListener implements FlushEventListener, AutoFlushEventListener, EventListenerContributor {
+
+    private final RepositoryMetrics metrics;
+
+    @Override
+    public void contribute(EventListenerRegistry registry) {
+        registry.prependListeners(EventType.FLUSH, new BeforeFlush());
+        registry.prependListeners(EventType.AUTO_FLUSH, new BeforeFlush());
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) throws HibernateException {
+        metrics.afterFlush(event.getNumberOfEntitiesProcessed());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) throws HibernateException {
+        metrics.afterAutoFlush(); // 쿼리 전 부분 flush는 시간만 더한다
+    }
+
+    // 리스너 그룹은 같은 클래스의 리스너를 중복으로 보므로 별도 클래스로 둔다
+    private class BeforeFlush implements FlushEventListener, AutoFlushEventListener {
+
+        @Override
+        public void onFlush(FlushEvent event) throws HibernateException {
+            metrics.beforeFlush();
+        }
+
+        @Override
+        public void onAutoFlush(AutoFlushEvent event) throws HibernateException {
+            metrics.beforeFlush();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청(또는 begin/end로 감싼 작업) 단위로 지연 로딩 횟수와 SQL 실행 수를 센다.
+ * 지연 로딩 중에 실행된 SQL이 threshold를 넘으면 N+1로 보고 로그를 남기거나(log) 예외를 던진다(fail).
+ * 프록시 초기화 횟수가 아니라 SQL 수를 보므로 @BatchSize로 한 번에 읽은 경우는 N+1로 보지 않는다.
+ */
+@Slf4j
+@Component
+public class LazyLoadDetector implements StatementInspector {
+
+    public enum Action { LOG, FAIL }
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    // StatementInspector로 EntityManagerFactory보다 먼저 만들어지므로 MeterRegistry는 지연 조회한다
+    private final ObjectProvider<MeterRegistry> registry;
+    private final int threshold;
+    private final Action action;
+
+    public LazyLoadDetector(ObjectProvider<MeterRegistry> registry,
+                            @Value("${datajpa.n-plus-one.threshold:10}") int threshold,
+                            @Value("${datajpa.n-plus-one.action:log}") Action action) {
+        this.registry = registry;
+        this.threshold = threshold;
+        this.action = action;
+    }
+
+    public void begin() {
+        current.set(new Scope());
+    }
+
+    /**
+     * @return 구간 동안 지연 로딩으로 실행된 SQL 수
+     */
+    public int end(String name) {
+        Scope scope = current.get();
+        current.remove();
+        if (scope == null) {
+            return 0;
+        }
+
+        registry.ifAvailable(meters -> {
+            DistributionSummary.builder("datajpa.request.statements")
+                    .tag("name", name)
+                    .description("SQL statements executed per request")
+                    .register(meters)
+                    .record(scope.statements);
+            DistributionSummary.builder("datajpa.request.lazy.loads")
+                    .tag("name", name)
+                    .description("Lazy initializations per request")
+                    .register(meters)
+                    .record(scope.lazyLoads);
+            DistributionSummary.builder("datajpa.request.lazy.statements")
+                    .tag("name", name)
+                    .description("SQL statements executed by lazy initializations per request")
+                    .register(meters)
+                    .record(scope.lazyStatements);
+        });
+
+        if (scope.lazyStatements > threshold && action == Action.LOG) {
+            log.warn("possible N+1 in {}: {} lazy load statements, {} lazy loads, {} statements (last: {})",
+                    name, scope.lazyStatements, scope.lazyLoads, scope.statements, scope.lastRole);
+        }
+        return scope.lazyStatements;
+    }
+
+    void beforeLazyLoad() {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.lazyDepth++;
+        }
+    }
+
+    void afterLazyLoad(String role) {
+        registry.ifAvailable(meters -> Counter.builder("datajpa.lazy.loads")
+                .tag("role", role)
+                .register(meters)
+                .increment());
+
+        Scope scope = current.get();
+        if (scope == null) {
+            return;
+        }
+        scope.lazyLoads++;
+        scope.lastRole = role;
+        if (scope.lazyDepth > 0) {
+            scope.lazyDepth--;
+        }
+
+        if (scope.lazyStatements > threshold && action == Action.FAIL) {
+            throw new IllegalStateException("N+1 detected: " + scope.lazyStatements
+                    + " lazy load statements (last: " + role + ")");
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.statements++;
+            if (scope.lazyDepth > 0) {
+                scope.lazyStatements++;
+            }
+        }
+        return sql;
+    }
+
+    private static class Scope {
+        private int lazyLoads;
+        private int lazyStatements;
+        private int lazyDepth; // 지연 로딩 안에서 다른 지연 로딩이 일어날 수 있다
+        private int statements;
+        private String lastRole;
+    }
+}
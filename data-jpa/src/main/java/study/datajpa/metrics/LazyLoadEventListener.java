@@ -0,0 +1,60 @@
+package study.datajpa.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.HibernateException;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.EventListenerContributor;
+
+/**
+ * 프록시 초기화(IMMEDIATE_LOAD)와 컬렉션 지연 초기화의 시작과 끝을 {@link LazyLoadDetector}에 알린다.
+ * 기본 리스너 앞뒤에 등록해서 그 사이에 실행된 SQL을 지연 로딩 SQL로 센다.
+ */
+@Component
+@RequiredArgsConstructor
+public class LazyLoadEventListener
+        implements LoadEventListener, InitializeCollectionEventListener, EventListenerContributor {
+
+    private final LazyLoadDetector detector;
+
+    @Override
+    public void contribute(EventListenerRegistry registry) {
+        registry.prependListeners(EventType.LOAD, new BeforeLazyLoad());
+        registry.prependListeners(EventType.INIT_COLLECTION, new BeforeLazyLoad());
+        registry.appendListeners(EventType.LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            detector.afterLazyLoad(event.getEntityClassName());
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        detector.afterLazyLoad(event.getCollection().getRole());
+    }
+
+    // 리스너 그룹은 같은 클래스의 리스너를 중복으로 보므로 별도 클래스로 둔다
+    private class BeforeLazyLoad implements LoadEventListener, InitializeCollectionEventListener {
+
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                detector.beforeLazyLoad();
+            }
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+            detector.beforeLazyLoad();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class QueryMetricsConfig {
+
+    /**
+     * 모든 레포지토리 프록시에 {@link RepositoryMetricsInterceptor}를 붙인다.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<RepositoryMetrics> metrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    RepositoryFactoryBeanSupport<?, ?, ?> factoryBean = (RepositoryFactoryBeanSupport<?, ?, ?>) bean;
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(new RepositoryMetricsInterceptor(
+                                    metrics.getObject(), information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * dataSource 빈을 datasource-proxy로 감싸서 SQL 실행 수/JDBC 시간을 모으고,
+     * threshold를 넘는 쿼리는 파라미터가 바인딩된 SQL로 slow query 로그를 남긴다.
+     * (ExecutionInfo.getElapsedTime()은 ms 단위라 짧은 쿼리가 0이 되므로 JDBC 시간은 beforeQuery/afterQuery 사이를 nanoTime으로 잰다)
+     */
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor(Environment environment,
+                                                                        ObjectProvider<RepositoryMetrics> metrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                Duration threshold = environment.getProperty("datajpa.metrics.slow-query-threshold", Duration.class,
+                        Duration.ofMillis(500));
+                ThreadLocal<Long> startedAt = new ThreadLocal<>();
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name("datajpa")
+                        .logSlowQueryBySlf4j(threshold.toMillis(), TimeUnit.MILLISECONDS)
+                        .beforeQuery((execInfo, queryInfoList) -> startedAt.set(System.nanoTime()))
+                        .afterQuery((execInfo, queryInfoList) -> {
+                            long elapsedNanos = System.nanoTime() - startedAt.get();
+                            startedAt.remove();
+                            metrics.ifAvailable(m -> m.onStatement(elapsedNanos));
+                        })
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+@Component
+@RequiredArgsConstructor
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+
+    // bindTo는 시작할 때 메인 스레드에서 호출되므로 EMF(백그라운드에서 만들어질 수 있다)는 값을 읽을 때 unwrap 한다
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datajpa.query.plan.cache", emf, e -> statistics(e).getQueryPlanCacheHitCount())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("datajpa.query.plan.cache", emf, e -> statistics(e).getQueryPlanCacheMissCount())
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("datajpa.query.plan.cache.hit.ratio", emf, e -> hitRatio(statistics(e)))
+                .register(registry);
+    }
+
+    private static Statistics statistics(EntityManagerFactory emf) {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static double hitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
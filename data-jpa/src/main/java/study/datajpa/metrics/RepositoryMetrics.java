@@ -0,0 +1,155 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 레포지토리 메소드 호출 단위(예: MemberRepository.findByAge)로 SQL 실행 수, JDBC 시간, 반환 행 수,
+ * 로딩된 엔티티 수, flush 시간을 모아서 Micrometer로 내보낸다.
+ * JDBC/Hibernate 쪽 수집기({@link QueryMetricsConfig}, {@link EntityLoadMetricsListener}, {@link FlushMetricsListener})는
+ * 같은 컨텍스트의 이 빈을 주입받는다. 테스트처럼 컨텍스트가 여러 개 떠 있어도 서로 섞이지 않는다.
+ */
+@Component
+public class RepositoryMetrics {
+
+    private final ThreadLocal<Deque<Scope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<Integer> lastFlushedEntities = new ThreadLocal<>();
+    private final ObjectProvider<MeterRegistry> registry;
+
+    // 동기화 목록은 Set이라 같은 인스턴스는 트랜잭션마다 한 번만 등록된다
+    private final TransactionSynchronization recordOnCompletion = new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+            Integer managedEntities = lastFlushedEntities.get();
+            lastFlushedEntities.remove();
+            if (managedEntities != null) {
+                onTransactionCompletion(managedEntities);
+            }
+        }
+    };
+
+    public RepositoryMetrics(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    void begin() {
+        scopes.get().push(new Scope());
+    }
+
+    void end(String repository, String method, Object result, long elapsedNanos, Throwable error) {
+        Scope scope = scopes.get().pop();
+        MeterRegistry meters = registry.getIfAvailable();
+        if (meters == null) {
+            return;
+        }
+
+        Timer.builder("datajpa.repository.invocations")
+                .tags("repository", repository, "method", method,
+                        "exception", error == null ? "none" : error.getClass().getSimpleName())
+                .publishPercentiles(0.5, 0.99)
+                .register(meters)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        summary(meters, "datajpa.repository.statements", repository, method).record(scope.statements);
+        summary(meters, "datajpa.repository.rows", repository, method).record(rows(result));
+        summary(meters, "datajpa.repository.entities.loaded", repository, method).record(scope.entitiesLoaded);
+        timer(meters, "datajpa.repository.jdbc", repository, method).record(scope.jdbcNanos, TimeUnit.NANOSECONDS);
+        timer(meters, "datajpa.repository.flush", repository, method).record(scope.flushNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void onStatement(long elapsedNanos) {
+        Scope scope = scopes.get().peek();
+        if (scope != null) {
+            scope.statements++;
+            scope.jdbcNanos += elapsedNanos;
+        }
+    }
+
+    void onEntityLoaded() {
+        Scope scope = scopes.get().peek();
+        if (scope != null) {
+            scope.entitiesLoaded++;
+        }
+    }
+
+    void beforeFlush() {
+        Scope scope = scopes.get().peek();
+        if (scope != null) {
+            scope.flushStart = System.nanoTime();
+        }
+    }
+
+    void afterAutoFlush() {
+        Scope scope = scopes.get().peek();
+        if (scope != null && scope.flushStart != 0) {
+            scope.flushNanos += System.nanoTime() - scope.flushStart;
+            scope.flushStart = 0;
+        }
+    }
+
+    void afterFlush(int flushedEntities) {
+        afterAutoFlush();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastFlushedEntities.set(flushedEntities);
+            TransactionSynchronizationManager.registerSynchronization(recordOnCompletion);
+        }
+    }
+
+    private void onTransactionCompletion(int managedEntities) {
+        registry.ifAvailable(meters -> DistributionSummary.builder("datajpa.persistence.context.entities")
+                .description("Entities in the persistence context at the last flush before transaction completion")
+                .register(meters)
+                .record(managedEntities));
+    }
+
+    private DistributionSummary summary(MeterRegistry meters, String name, String repository, String method) {
+        return DistributionSummary.builder(name)
+                .tags("repository", repository, "method", method)
+                .register(meters);
+    }
+
+    private Timer timer(MeterRegistry meters, String name, String repository, String method) {
+        return Timer.builder(name)
+                .tags("repository", repository, "method", method)
+                .register(meters);
+    }
+
+    private long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream) {
+            return 0; // 스트림은 호출이 끝난 뒤에 읽히므로 알 수 없다
+        }
+        return 1;
+    }
+
+    private static class Scope {
+        private int statements;
+        private int entitiesLoaded;
+        private long jdbcNanos;
+        private long flushNanos;
+        private long flushStart;
+    }
+}
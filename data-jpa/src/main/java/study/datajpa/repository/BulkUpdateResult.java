@@ -0,0 +1,28 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class BulkUpdateResult {
+
+    private final long updatedRows;
+    private final int completedSlices;
+    private final int totalSlices;
+    private final Duration elapsed;
+
+    public BulkUpdateResult(long updatedRows, int completedSlices, int totalSlices, Duration elapsed) {
+        this.updatedRows = updatedRows;
+        this.completedSlices = completedSlices;
+        this.totalSlices = totalSlices;
+        this.elapsed = elapsed;
+    }
+
+    public double getRowsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? updatedRows : updatedRows * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,145 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Page 조회용 count 결과 캐시. (count 쿼리, 파라미터)를 키로 TTL 동안 결과를 재사용한다.
+ * Member 테이블에 쓰기가 일어나면 ({@link MemberCountInvalidator}) 그 트랜잭션이 끝날 때 (커밋이든 롤백이든) 전체를 비운다.
+ * <ul>
+ *     <li>member에 쓴 트랜잭션 안에서는 캐시를 거치지 않는다. 센 값은 커밋되지 않은 행을 포함하므로 캐시에 넣지 않는다.</li>
+ *     <li>비우기 전에 세기 시작한 값이 비운 뒤에 들어오지 않도록 항목에 세대 번호를 붙이고, 비울 때마다 세대를 올린다.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class CountCache {
+
+    private static final String ESTIMATE_SQL =
+            "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES where TABLE_NAME = ?";
+
+    private final Map<List<Object>, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final boolean estimated;
+    private volatile boolean estimateSupported = true;
+
+    // 동기화 목록은 Set이라 같은 인스턴스는 트랜잭션마다 한 번만 등록된다
+    private final TransactionSynchronization invalidateOnCompletion = new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+            invalidateAll();
+        }
+    };
+
+    public CountCache(JdbcTemplate jdbcTemplate,
+                      @Value("${datajpa.count.ttl:30s}") Duration ttl,
+                      @Value("${datajpa.count.max-entries:10000}") int maxEntries,
+                      @Value("${datajpa.count.estimated:false}") boolean estimated) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.estimated = estimated;
+    }
+
+    public long count(String query, Map<String, ?> params, LongSupplier counter) {
+        List<Object> key = List.of(query, params);
+        long now = System.nanoTime();
+
+        if (writtenInCurrentTransaction()) {
+            return counter.getAsLong(); // 자기 트랜잭션의 쓰기가 보여야 한다
+        }
+
+        long currentGeneration = generation.get();
+        Entry entry = cache.get(key);
+        if (entry != null && entry.generation == currentGeneration && entry.expiresAt - now > 0) {
+            return entry.count;
+        }
+
+        long count = counter.getAsLong(); // member 쓰기가 있으면 이 쿼리 전 auto flush에서 onMemberWrite()가 불린다
+        if (writtenInCurrentTransaction()) {
+            return count;
+        }
+        if (cache.size() >= maxEntries) {
+            evictExpired(now);
+        }
+        cache.put(key, new Entry(count, now + ttlNanos, currentGeneration));
+        return count;
+    }
+
+    /**
+     * member 테이블에 쓰는 SQL이 나갈 때 호출된다. 트랜잭션 안이면 끝날 때 비우고, 아니면(auto-commit) 바로 비운다.
+     */
+    public void onMemberWrite() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(invalidateOnCompletion);
+        } else {
+            invalidateAll();
+        }
+    }
+
+    private boolean writtenInCurrentTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getSynchronizations().contains(invalidateOnCompletion);
+    }
+
+    /**
+     * estimated 모드가 켜져 있으면 count 쿼리 대신 DB 통계(H2 ROW_COUNT_ESTIMATE)를 읽는다.
+     * 통계를 지원하지 않는 DB이면 캐시된 정확한 count로 대신한다.
+     */
+    public long estimate(String table, String query, LongSupplier counter) {
+        if (!estimated || !estimateSupported) {
+            return count(query, Map.of(), counter);
+        }
+        return count("estimate:" + table, Map.of(), () -> {
+            try {
+                Long rows = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, table.toUpperCase());
+                if (rows != null) {
+                    return rows;
+                }
+            } catch (DataAccessException e) {
+                log.warn("row count estimate is not supported, falling back to count query", e);
+                estimateSupported = false;
+            }
+            return counter.getAsLong();
+        });
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private void evictExpired(long now) {
+        cache.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+        private final long generation;
+
+        private Entry(long count, long expiresAt, long generation) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpa.repository;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+
+/**
+ * SessionFactory가 만들어질 때 Hibernate 이벤트 리스너를 등록한다. ({@link EventListenerIntegratorConfig})
+ * EntityManagerFactory보다 먼저 생성되므로 EntityManagerFactory, 트랜잭션 매니저에는 ObjectProvider로만 의존해야 한다.
+ */
+public interface EventListenerContributor {
+
+    void contribute(EventListenerRegistry registry);
+}
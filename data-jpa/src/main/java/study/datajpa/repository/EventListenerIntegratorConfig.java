@@ -0,0 +1,44 @@
+package study.datajpa.repository;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 빈으로 등록된 {@link EventListenerContributor}들을 Integrator 하나로 묶어서 SessionFactory를 만들 때 리스너를 등록한다.
+ * 빈 초기화 중에 emf.unwrap으로 등록하면 EMF를 백그라운드에서 만드는 경우(fast-start 프로필) 메인 스레드가 EMF를 기다린다.
+ */
+@Configuration
+public class EventListenerIntegratorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer eventListenerIntegratorCustomizer(ObjectProvider<EventListenerContributor> contributors) {
+        // 리스너 빈은 여기(메인 스레드)서 만든다. Integrator는 EMF를 만드는 스레드에서 실행되므로 빈을 만들면 안 된다
+        List<EventListenerContributor> resolved = contributors.orderedStream().collect(Collectors.toList());
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                                  SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                resolved.forEach(contributor -> contributor.contribute(registry));
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+}
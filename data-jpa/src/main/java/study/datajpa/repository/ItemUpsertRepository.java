@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemUpsertRepository {
+
+    /**
+     * isNew() 판단/merge 없이 MERGE INTO(H2), INSERT ... ON CONFLICT(PostgreSQL)를 JDBC batch로 실행한다.
+     * 이미 있는 행은 lastModifiedAt/lastModifiedBy만 갱신하고 createdAt/createdBy는 유지한다.
+     * 넘겨준 Item 객체에는 감사 필드가 모두 채워지지만, 기존 행의 createdAt/createdBy는 DB 값이 기준이다.
+     *
+     * @return 반영된 행 수
+     */
+    int upsertAll(Collection<Item> items);
+}
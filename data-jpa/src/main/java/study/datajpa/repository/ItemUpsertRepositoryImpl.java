@@ -0,0 +1,77 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class ItemUpsertRepositoryImpl implements ItemUpsertRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String H2_UPSERT =
+            "merge into item t using (select cast(? as varchar(255)) id, cast(? as timestamp) created_at," +
+            " cast(? as varchar(255)) created_by, cast(? as timestamp) last_modified_at," +
+            " cast(? as varchar(255)) last_modified_by) s on t.id = s.id" +
+            " when matched then update set t.last_modified_at = s.last_modified_at, t.last_modified_by = s.last_modified_by" +
+            " when not matched then insert (id, created_at, created_by, last_modified_at, last_modified_by)" +
+            " values (s.id, s.created_at, s.created_by, s.last_modified_at, s.last_modified_by)";
+
+    private static final String POSTGRES_UPSERT =
+            "insert into item (id, created_at, created_by, last_modified_at, last_modified_by) values (?, ?, ?, ?, ?)" +
+            " on conflict (id) do update set last_modified_at = excluded.last_modified_at," +
+            " last_modified_by = excluded.last_modified_by";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditingHandler auditingHandler;
+
+    private volatile String upsertSql;
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<Item> items) {
+        em.flush(); // 영속성 컨텍스트에 쌓인 Item 변경을 먼저 반영
+
+        for (Item item : items) {
+            auditingHandler.markCreated(item); // createdAt/By + lastModifiedAt/By (modifyOnCreate)
+        }
+
+        int[][] result = jdbcTemplate.batchUpdate(upsertSql(), items, BATCH_SIZE, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setObject(2, item.getCreatedAt());
+            ps.setString(3, item.getCreatedBy());
+            ps.setObject(4, item.getLastModifiedAt());
+            ps.setString(5, item.getLastModifiedBy());
+        });
+
+        // JDBC로 직접 변경했으므로 @Modifying(clearAutomatically = true)처럼 영속성 컨텍스트를 비운다
+        em.clear();
+
+        return Arrays.stream(result)
+                .flatMapToInt(Arrays::stream)
+                .map(count -> Math.max(count, 0)) // SUCCESS_NO_INFO(-2)는 0으로 본다
+                .sum();
+    }
+
+    private String upsertSql() {
+        if (upsertSql == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        metaData -> metaData.getDatabaseProductName());
+                upsertSql = "PostgreSQL".equals(product) ? POSTGRES_UPSERT : H2_UPSERT;
+            } catch (MetaDataAccessException e) {
+                upsertSql = H2_UPSERT;
+            }
+        }
+        return upsertSql;
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * (username, id) 정렬 키로 만든 keyset 커서. 클라이언트에는 opaque 문자열로만 노출한다.
+ */
+@Getter
+@ToString
+public class KeysetCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final String username;
+    private final Long id;
+
+    public KeysetCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public String encode() {
+        // id를 앞에 두어 username에 구분자가 들어 있어도 안전하게 복원한다
+        String raw = id + SEPARATOR + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            return new KeysetCursor(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+}
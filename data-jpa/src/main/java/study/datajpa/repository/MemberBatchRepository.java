@@ -0,0 +1,14 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Member;
+
+public interface MemberBatchRepository {
+
+    /**
+     * batchSize 단위로 JDBC batch insert 후 flush/clear 해서 영속성 컨텍스트 크기를 일정하게 유지한다.
+     * 아직 저장되지 않은 Team은 Member보다 먼저 persist 한다.
+     *
+     * @return 저장한 회원 수
+     */
+    long saveAllBatched(Iterable<Member> members, int batchSize);
+}
@@ -0,0 +1,48 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+
+@RequiredArgsConstructor
+public class MemberBatchRepositoryImpl implements MemberBatchRepository {
+
+    private final EntityManager em;
+
+    @Override
+    @Transactional
+    public long saveAllBatched(Iterable<Member> members, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다: " + batchSize);
+        }
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+
+        try {
+            long count = 0;
+            for (Member member : members) {
+                Team team = member.getTeam();
+                if (team != null && team.getId() == null) {
+                    em.persist(team); // order_inserts와 함께 team insert가 member insert보다 먼저 나간다
+                }
+                em.persist(member);
+
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+            return count;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+}
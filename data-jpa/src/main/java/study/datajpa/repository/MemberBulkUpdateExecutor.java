@@ -0,0 +1,173 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * bulkAgePlus를 MEMBER_ID 구간(slice) 단위로 나눠서 실행한다.
+ * slice마다 별도 트랜잭션으로 커밋하므로 락을 오래 잡지 않고, parallelism만큼 서로 다른 커넥션에서 동시에 실행한다.
+ * (parallelism은 커넥션 풀 크기보다 작아야 한다)
+ * <p>
+ * JDBC로 직접 갱신하므로 호출 스레드의 영속성 컨텍스트에 남은 갱신 대상 회원은 준영속으로 만든다.
+ * (Member는 2차 캐시에 두지 않으므로 캐시는 비울 것이 없다)
+ */
+@Slf4j
+@Component
+public class MemberBulkUpdateExecutor {
+
+    private static final String ID_RANGE_SQL = "select min(member_id), max(member_id) from member";
+    private static final String AGE_PLUS_SQL =
+            "update member set age = age + 1, version = version + 1 where member_id between ? and ? and age >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate sliceTransaction;
+    private final EntityManagerFactory emf;
+    private final CountCache countCache;
+    private final ObjectProvider<TeamMemberSummaryMaintainer> teamMemberSummary;
+    private final int defaultSliceSize;
+    private final int defaultParallelism;
+
+    public MemberBulkUpdateExecutor(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    EntityManagerFactory emf,
+                                    CountCache countCache,
+                                    ObjectProvider<TeamMemberSummaryMaintainer> teamMemberSummary,
+                                    @Value("${datajpa.bulk.slice-size:10000}") int defaultSliceSize,
+                                    @Value("${datajpa.bulk.parallelism:1}") int defaultParallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sliceTransaction = new TransactionTemplate(transactionManager);
+        this.sliceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.emf = emf;
+        this.countCache = countCache;
+        this.teamMemberSummary = teamMemberSummary;
+        this.defaultSliceSize = defaultSliceSize;
+        this.defaultParallelism = defaultParallelism;
+    }
+
+    public BulkUpdateResult bulkAgePlus(int age) {
+        return bulkAgePlus(age, defaultSliceSize, defaultParallelism, progress -> { });
+    }
+
+    public BulkUpdateResult bulkAgePlus(int age, int sliceSize, int parallelism, Consumer<BulkUpdateResult> progressListener) {
+        if (sliceSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("sliceSize, parallelism은 1 이상이어야 합니다");
+        }
+
+        long start = System.nanoTime();
+        long[] range = jdbcTemplate.queryForObject(ID_RANGE_SQL, (rs, rowNum) -> {
+            long minId = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{minId, rs.getLong(2)};
+        });
+        if (range == null) {
+            return new BulkUpdateResult(0, 0, 0, Duration.ZERO);
+        }
+
+        List<long[]> slices = new ArrayList<>();
+        for (long from = range[0]; from <= range[1]; from += sliceSize) {
+            slices.add(new long[]{from, Math.min(from + sliceSize - 1, range[1])});
+        }
+
+        AtomicLong updatedRows = new AtomicLong();
+        AtomicInteger completedSlices = new AtomicInteger();
+        Runnable[] tasks = slices.stream()
+                .map(slice -> (Runnable) () -> {
+                    updatedRows.addAndGet(updateSlice(slice[0], slice[1], age));
+                    BulkUpdateResult progress = new BulkUpdateResult(updatedRows.get(), completedSlices.incrementAndGet(),
+                            slices.size(), Duration.ofNanos(System.nanoTime() - start));
+                    log.debug("bulkAgePlus progress: {}", progress);
+                    progressListener.accept(progress);
+                })
+                .toArray(Runnable[]::new);
+
+        try {
+            run(tasks, parallelism);
+        } finally {
+            countCache.invalidateAll();
+            detachStaleMembers(age);
+            teamMemberSummary.ifAvailable(TeamMemberSummaryMaintainer::rebuild); // 나이 합계가 바뀌었다
+        }
+
+        BulkUpdateResult result = new BulkUpdateResult(updatedRows.get(), completedSlices.get(), slices.size(),
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("bulkAgePlus(age >= {}) finished: {} ({} rows/sec)", age, result, (long) result.getRowsPerSecond());
+        return result;
+    }
+
+    private int updateSlice(long fromId, long toId, int age) {
+        Integer updated = sliceTransaction.execute(status -> jdbcTemplate.update(AGE_PLUS_SQL, fromId, toId, age));
+        return updated == null ? 0 : updated;
+    }
+
+    private void run(Runnable[] tasks, int parallelism) {
+        if (parallelism == 1) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulkAgePlus가 중단되었습니다", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("bulkAgePlus slice 실행에 실패했습니다", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 호출 스레드에 묶인 영속성 컨텍스트(트랜잭션, OSIV)가 있으면 갱신 대상이었던 회원만 준영속으로 만든다.
+     */
+    private void detachStaleMembers(int age) {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null) {
+            return;
+        }
+
+        EntityManager em = holder.getEntityManager();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+
+        List<Member> stale = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member && ((Member) entry.getKey()).getAge() >= age) {
+                stale.add((Member) entry.getKey());
+            }
+        }
+        stale.forEach(em::detach);
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Member 테이블에 insert/update/delete SQL이 나가면 {@link CountCache}에 알린다.
+ * 캐시는 그 트랜잭션이 끝난 뒤에 비워지고, 그 트랜잭션 안에서 센 값은 캐시에 넣지 않는다.
+ * 엔티티 리스너와 달리 bulkAgePlus 같은 벌크 JPQL도 잡아낸다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberCountInvalidator implements StatementInspector {
+
+    private static final Pattern MEMBER_WRITE =
+            Pattern.compile("^\\s*(insert\\s+into|update|delete\\s+from)\\s+member\\b");
+
+    private final CountCache countCache;
+
+    @Override
+    public String inspect(String sql) {
+        String trimmed = sql.stripLeading();
+        if (trimmed.isEmpty()) {
+            return sql;
+        }
+        char first = Character.toLowerCase(trimmed.charAt(0));
+        if ((first == 'i' || first == 'u' || first == 'd')
+                && MEMBER_WRITE.matcher(sql.toLowerCase(Locale.ROOT)).find()) {
+            countCache.onMemberWrite();
+        }
+        return sql;
+    }
+}
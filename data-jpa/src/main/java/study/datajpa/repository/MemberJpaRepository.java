@@ -1,19 +1,26 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
+    private static final String TOTAL_COUNT_QUERY = "select count(m) from Member m where m.age = :age";
+
     @PersistenceContext
     private EntityManager em;
 
+    private final CountCache countCache;
+
     public Member save(Member member){
         em.persist(member);
         return member;
@@ -59,13 +66,14 @@ public class MemberJpaRepository {
     }
 
     public long totalCount(int age){
-        return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
-                .setParameter("age",age)
-                .getSingleResult();
+        return countCache.count(TOTAL_COUNT_QUERY, Map.of("age", age),
+                () -> em.createQuery(TOTAL_COUNT_QUERY, Long.class)
+                        .setParameter("age",age)
+                        .getSingleResult());
     }
 
     public int bulkAgePlus(int age){
-        return em.createQuery("update Member m set m.age = m.age + 1 where  m.age >=: age")
+        return em.createQuery("update versioned Member m set m.age = m.age + 1 where  m.age >=: age")
                 .setParameter("age" , age)
                 .executeUpdate();
     }
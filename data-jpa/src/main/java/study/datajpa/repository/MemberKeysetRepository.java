@@ -0,0 +1,14 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Member;
+
+public interface MemberKeysetRepository {
+
+    /**
+     * (username, id) 순으로 cursor 다음 size개를 조회한다. cursor가 null이면 첫 페이지.
+     * OFFSET, count 쿼리를 쓰지 않으므로 페이지 깊이와 상관없이 비용이 일정하다.
+     */
+    KeysetSlice<Member> findAllByKeyset(String cursor, int size);
+
+    KeysetSlice<Member> findByAgeByKeyset(int age, String cursor, int size);
+}
@@ -0,0 +1,64 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberKeysetRepositoryImpl implements MemberKeysetRepository {
+
+    // username이 null인 회원은 비교 결과가 unknown이라 keyset 조회에서 제외한다.
+    // 첫 페이지에서도 빼야 마지막 행의 null username이 커서에 들어가지 않는다
+    private static final String NOT_NULL_CONDITION = " m.username is not null";
+    private static final String SEEK_CONDITION =
+            " and (m.username > :username or (m.username = :username and m.id > :id))";
+    private static final String ORDER_BY = " order by m.username asc, m.id asc";
+
+    private final EntityManager em;
+
+    @Override
+    public KeysetSlice<Member> findAllByKeyset(String cursor, int size) {
+        return seek("select m from Member m", null, cursor, size);
+    }
+
+    @Override
+    public KeysetSlice<Member> findByAgeByKeyset(int age, String cursor, int size) {
+        return seek("select m from Member m where m.age = :age", age, cursor, size);
+    }
+
+    private KeysetSlice<Member> seek(String baseQuery, Integer age, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size는 1 이상이어야 합니다: " + size);
+        }
+
+        KeysetCursor position = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        String jpql = baseQuery + (age == null ? " where" : " and") + NOT_NULL_CONDITION;
+        if (position != null) {
+            jpql += SEEK_CONDITION;
+        }
+        jpql += ORDER_BY;
+
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class)
+                .setMaxResults(size + 1); // 한 건 더 읽어서 다음 페이지 존재 여부를 판단
+        if (age != null) {
+            query.setParameter("age", age);
+        }
+        if (position != null) {
+            query.setParameter("username", position.getUsername());
+            query.setParameter("id", position.getId());
+        }
+
+        List<Member> result = query.getResultList();
+        if (result.size() <= size) {
+            return new KeysetSlice<>(result, null);
+        }
+
+        List<Member> content = result.subList(0, size);
+        Member last = content.get(size - 1);
+        return new KeysetSlice<>(content, new KeysetCursor(last.getUsername(), last.getId()).encode());
+    }
+}
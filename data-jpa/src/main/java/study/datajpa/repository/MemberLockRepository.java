@@ -0,0 +1,24 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface MemberLockRepository {
+
+    /**
+     * 아직 가져가지 않은(claimedAt이 null인) 회원 중 다른 트랜잭션이 잠근 행은 건너뛰고(SKIP LOCKED)
+     * MEMBER_ID 순으로 최대 n명을 잠가서 가져오고 claimedAt을 채운다.
+     * 여러 워커가 동시에 호출해도 서로 겹치지 않는 회원을 가져가므로 작업 큐처럼 쓸 수 있고, 커밋된 claim은 다시 가져가지 않는다.
+     * 잠금은 호출한 트랜잭션이 끝날 때까지 유지되므로 트랜잭션 안에서 호출해야 한다.
+     */
+    List<Member> claimNextMembers(int n);
+
+    /**
+     * findLockByUsername과 같지만 잠금을 timeout 이상 기다리지 않는다. 0이면 기다리지 않고(NOWAIT) 바로 실패한다.
+     * H2처럼 WAIT를 지원하지 않는 DB에서는 0보다 큰 timeout이 초 단위 JDBC query timeout으로 적용된다. (최소 1초)
+     * 시간 안에 잠금을 얻지 못하면 PessimisticLockingFailureException 계열 예외가 발생한다.
+     */
+    List<Member> lockByUsername(String username, Duration timeout);
+}
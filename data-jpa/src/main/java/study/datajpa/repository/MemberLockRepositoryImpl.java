@@ -0,0 +1,84 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PessimisticLockException;
+import javax.persistence.QueryTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@RequiredArgsConstructor
+public class MemberLockRepositoryImpl implements MemberLockRepository {
+
+    // Hibernate 5.6 H2Dialect는 SKIP LOCKED를 만들지 못해서 native SQL로 작성 (H2 2.2+, PostgreSQL 공통 문법)
+    private static final String CLAIM_SQL = "select * from member where claimed_at is null"
+            + " order by member_id fetch first ? rows only for update skip locked";
+    // Hibernate 5.6 H2Dialect는 lock timeout 힌트를 무시하고 JDBC query timeout은 초 단위라 0은 native NOWAIT로 보낸다 (H2 2.2+)
+    private static final String NOWAIT_SQL = "select * from member where username = ? for update nowait";
+
+    private final EntityManager em;
+    private final ObjectProvider<MeterRegistry> registry;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @SuppressWarnings("unchecked")
+    public List<Member> claimNextMembers(int n) {
+        List<Member> claimed = timeLockWait("claimNextMembers", () -> em.createNativeQuery(CLAIM_SQL, Member.class)
+                .setParameter(1, n)
+                .getResultList());
+        // 커밋되면 다음 claim에서 제외된다. 롤백되면 claimed_at도 되돌아가서 다시 가져갈 수 있다
+        LocalDateTime now = LocalDateTime.now();
+        claimed.forEach(member -> member.claim(now));
+        return claimed;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<Member> lockByUsername(String username, Duration timeout) {
+        if (timeout.isZero()) {
+            return timeLockWait("lockByUsername", () -> em.createNativeQuery(NOWAIT_SQL, Member.class)
+                    .setParameter(1, username)
+                    .getResultList());
+        }
+        return timeLockWait("lockByUsername", () -> em.createQuery(
+                        "select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                // WAIT를 지원하는 방언용 + 지원하지 않는 방언(H2)은 JDBC query timeout(최소 1초)으로 대기를 끊는다
+                .setHint("javax.persistence.lock.timeout", timeout.toMillis())
+                .setHint("javax.persistence.query.timeout", Math.max(timeout.toMillis(), 1000))
+                .getResultList());
+    }
+
+    private List<Member> timeLockWait(String method, Supplier<List<Member>> query) {
+        long start = System.nanoTime();
+        String outcome = "acquired";
+        try {
+            return query.get();
+        } catch (PessimisticLockException | LockTimeoutException | QueryTimeoutException e) {
+            outcome = "timeout";
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String result = outcome;
+            registry.ifAvailable(meters -> Timer.builder("datajpa.lock.wait")
+                    .tags("method", method, "result", result)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meters)
+                    .record(elapsed, TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Member;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MemberNamesRepository {
+
+    /**
+     * username이 names 중 하나인 회원. 순서는 보장하지 않는다.
+     * <ul>
+     *     <li>chunk-size 이하: in 절 쿼리 한 번. (in_clause_parameter_padding으로 파라미터 수를 2의 거듭제곱으로 맞춘다)</li>
+     *     <li>array-threshold 이하: chunk-size씩 나눠 같은 트랜잭션에서 차례로 실행하고 합친다.</li>
+     *     <li>그 이상: 이름 배열 하나를 바인딩해서(= any(?)) id만 찾고 chunk-size 단위로 multiLoad 한다.</li>
+     * </ul>
+     */
+    List<Member> findByNames(Collection<String> names);
+}
@@ -0,0 +1,89 @@
+package study.datajpa.repository;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+public class MemberNamesRepositoryImpl implements MemberNamesRepository {
+
+    private static final String NAMES_QUERY = "select m from Member m where m.username in :names";
+    private static final String ARRAY_IDS_SQL = "select member_id from member where username = any(?)";
+
+    private final EntityManager em;
+    private final int chunkSize;
+    private final int arrayThreshold;
+
+    public MemberNamesRepositoryImpl(EntityManager em,
+                                     @Value("${datajpa.in-list.chunk-size:512}") int chunkSize,
+                                     @Value("${datajpa.in-list.array-threshold:10000}") int arrayThreshold) {
+        this.em = em;
+        this.chunkSize = chunkSize;
+        this.arrayThreshold = arrayThreshold;
+    }
+
+    @Override
+    @Transactional(readOnly = true) // 배열 조회는 Session을 꺼내 쓰므로 트랜잭션(= 바인딩된 EntityManager)이 필요하다
+    public List<Member> findByNames(Collection<String> names) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        if (distinct.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (distinct.size() <= chunkSize) {
+            return query(distinct);
+        }
+        if (distinct.size() > arrayThreshold) {
+            return findByNameArray(distinct);
+        }
+
+        List<Member> result = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            result.addAll(query(distinct.subList(from, Math.min(from + chunkSize, distinct.size()))));
+        }
+        return result;
+    }
+
+    private List<Member> query(List<String> names) {
+        return em.createQuery(NAMES_QUERY, Member.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    private List<Member> findByNameArray(List<String> names) {
+        em.flush(); // JDBC로 직접 조회하므로 JPQL의 auto flush가 일어나지 않는다
+        Session session = em.unwrap(Session.class);
+        List<Long> ids = session.doReturningWork(connection -> {
+            Array array = connection.createArrayOf("VARCHAR", names.toArray());
+            try (PreparedStatement ps = connection.prepareStatement(ARRAY_IDS_SQL)) {
+                ps.setArray(1, array);
+                List<Long> found = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        found.add(rs.getLong(1));
+                    }
+                }
+                return found;
+            } finally {
+                array.free();
+            }
+        });
+
+        // 영속성 컨텍스트에 있는 회원은 DB에서 다시 읽지 않는다
+        List<Member> members = session.byMultipleIds(Member.class)
+                .withBatchSize(chunkSize)
+                .multiLoad(ids);
+        members.removeIf(Objects::isNull);
+        return members;
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.entity.Member;
+
+/**
+ * count 결과를 {@link CountCache}로 재사용하는 Page 조회.
+ */
+public interface MemberPageRepository {
+
+    Page<Member> findByUsername(String name, Pageable pageable); // count 쿼리 캐시
+
+    Page<Member> findByAge(int age, Pageable pageable); // count 쿼리 캐시
+
+    Page<Member> findAllWithCachedCount(Pageable pageable); // estimated 모드면 DB 통계 사용
+}
@@ -0,0 +1,72 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.applySorting;
+
+@RequiredArgsConstructor
+public class MemberPageRepositoryImpl implements MemberPageRepository {
+
+    private static final String USERNAME_QUERY = "select m from Member m where m.username = :username";
+    private static final String USERNAME_COUNT_QUERY = "select count(m) from Member m where m.username = :username";
+
+    // 기존 @Query(findByAge)의 본문/countQuery를 그대로 옮겼다
+    private static final String AGE_QUERY = "select m from Member m left join m.team t";
+    private static final String AGE_COUNT_QUERY = "select count(m.username) from Member m";
+
+    private static final String ALL_QUERY = "select m from Member m";
+    private static final String ALL_COUNT_QUERY = "select count(m) from Member m";
+
+    private final EntityManager em;
+    private final CountCache countCache;
+
+    @Override
+    public Page<Member> findByUsername(String name, Pageable pageable) {
+        List<Member> content = page(em.createQuery(applySorting(USERNAME_QUERY, pageable.getSort(), "m"), Member.class)
+                .setParameter("username", name), pageable);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.count(USERNAME_COUNT_QUERY, Collections.singletonMap("username", name),
+                        () -> em.createQuery(USERNAME_COUNT_QUERY, Long.class)
+                                .setParameter("username", name)
+                                .getSingleResult()));
+    }
+
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable) {
+        List<Member> content = page(em.createQuery(applySorting(AGE_QUERY, pageable.getSort(), "m"), Member.class), pageable);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.count(AGE_COUNT_QUERY, Map.of(),
+                        () -> em.createQuery(AGE_COUNT_QUERY, Long.class)
+                                .getSingleResult()));
+    }
+
+    @Override
+    public Page<Member> findAllWithCachedCount(Pageable pageable) {
+        List<Member> content = page(em.createQuery(applySorting(ALL_QUERY, pageable.getSort(), "m"), Member.class), pageable);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.estimate("MEMBER", ALL_COUNT_QUERY,
+                        () -> em.createQuery(ALL_COUNT_QUERY, Long.class)
+                                .getSingleResult()));
+    }
+
+    private List<Member> page(TypedQuery<Member> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+}
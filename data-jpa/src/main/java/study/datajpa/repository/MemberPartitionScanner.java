@@ -0,0 +1,233 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Member 테이블을 MEMBER_ID 구간(partition)으로 나눠서 구간마다 별도 커넥션(StatelessSession)에서 동시에 읽는다.
+ * 구간 하나가 Spliterator 하나이므로 병렬 스트림이 fork-join으로 구간을 나눠 실행한다.
+ * 스트림은 MEMBER_ID 순서(ORDERED)이고, 순서가 필요 없으면 unordered()로 합치는 비용을 줄일 수 있다.
+ * 동시에 쓰는 커넥션 수가 partitions이므로 커넥션 풀 크기보다 작게 잡아야 한다.
+ */
+@Component
+public class MemberPartitionScanner {
+
+    private static final String ID_RANGE_SQL = "select min(member_id), max(member_id) from member";
+    private static final String COUNT_SQL = "select count(*) from member where member_id between ? and ?";
+    private static final String MEMBER_DTO_QUERY = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) "
+            + "from Member m left join m.team t where m.id between :fromId and :toId order by m.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory emf; // 백그라운드에서 만들어지는 중일 수 있으므로 쓸 때 unwrap 한다
+    private final int fetchSize;
+
+    public MemberPartitionScanner(JdbcTemplate jdbcTemplate,
+                                  EntityManagerFactory emf,
+                                  @Value("${datajpa.stateless.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emf = emf;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * partitions개 스레드를 가진 전용 ForkJoinPool에서 query를 실행한다. (공용 풀을 막지 않는다)
+     * 스트림은 query가 끝나면 닫힌다.
+     */
+    public <R> R scan(int partitions, Function<Stream<MemberDto>, R> query) {
+        ForkJoinPool pool = new ForkJoinPool(partitions);
+        try (Stream<MemberDto> members = stream(partitions)) {
+            return pool.submit(() -> query.apply(members)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("partitioned scan이 중단되었습니다", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("partitioned scan에 실패했습니다", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 병렬 스트림. 호출한 스레드가 속한 ForkJoinPool(없으면 공용 풀)에서 실행된다.
+     * 중간에 멈추는 연산(findFirst, limit 등)이면 열린 커넥션이 남으므로 반드시 닫아야 한다.
+     */
+    public Stream<MemberDto> stream(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions는 1 이상이어야 합니다: " + partitions);
+        }
+
+        long[] range = idRange();
+        if (range == null) {
+            return Stream.empty();
+        }
+        long partitionSize = Math.max(1, (range[1] - range[0] + partitions) / partitions);
+
+        Queue<StatelessSession> openSessions = new ConcurrentLinkedQueue<>();
+        return StreamSupport.stream(new RangeSpliterator(range[0], range[1], partitionSize, openSessions), true)
+                .onClose(() -> {
+                    StatelessSession session;
+                    while ((session = openSessions.poll()) != null) {
+                        close(session);
+                    }
+                });
+    }
+
+    /**
+     * 구간마다 count를 별도 커넥션에서 동시에 실행해서 더한다.
+     */
+    public long count(int partitions) {
+        return scanRanges(partitions, (fromId, toId) -> jdbcTemplate.queryForObject(COUNT_SQL, Long.class, fromId, toId));
+    }
+
+    private long scanRanges(int partitions, RangeCounter counter) {
+        long[] range = idRange();
+        if (range == null) {
+            return 0;
+        }
+        long partitionSize = Math.max(1, (range[1] - range[0] + partitions) / partitions);
+
+        ForkJoinPool pool = new ForkJoinPool(partitions);
+        try {
+            long partitionCount = (range[1] - range[0]) / partitionSize + 1;
+            return pool.submit(() -> LongStream.range(0, partitionCount)
+                    .parallel()
+                    .map(i -> {
+                        long fromId = range[0] + i * partitionSize;
+                        return counter.count(fromId, Math.min(fromId + partitionSize - 1, range[1]));
+                    })
+                    .sum()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("partitioned count가 중단되었습니다", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("partitioned count에 실패했습니다", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long[] idRange() {
+        return jdbcTemplate.queryForObject(ID_RANGE_SQL, (rs, rowNum) -> {
+            long minId = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{minId, rs.getLong(2)};
+        });
+    }
+
+    private static void close(StatelessSession session) {
+        try {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback(); // 읽기만 했다
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private interface RangeCounter {
+        long count(long fromId, long toId);
+    }
+
+    /**
+     * [fromId, toId] 구간. partitionSize보다 크면 partitionSize 경계에서 반으로 나뉘고,
+     * 더 나눌 수 없는 구간은 처음 읽을 때 자기 커넥션으로 쿼리를 연다.
+     */
+    private class RangeSpliterator implements Spliterator<MemberDto> {
+
+        private final long partitionSize;
+        private final Queue<StatelessSession> openSessions;
+        private long fromId;
+        private final long toId;
+        private StatelessSession session;
+        private Iterator<MemberDto> rows;
+
+        RangeSpliterator(long fromId, long toId, long partitionSize, Queue<StatelessSession> openSessions) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.partitionSize = partitionSize;
+            this.openSessions = openSessions;
+        }
+
+        @Override
+        public Spliterator<MemberDto> trySplit() {
+            long partitionCount = (toId - fromId) / partitionSize + 1;
+            if (rows != null || partitionCount < 2) {
+                return null;
+            }
+            long splitAt = fromId + (partitionCount / 2) * partitionSize;
+            RangeSpliterator prefix = new RangeSpliterator(fromId, splitAt - 1, partitionSize, openSessions);
+            fromId = splitAt;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super MemberDto> action) {
+            if (rows == null) {
+                open();
+            }
+            if (rows.hasNext()) {
+                action.accept(rows.next());
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super MemberDto> action) {
+            if (rows == null) {
+                open();
+            }
+            rows.forEachRemaining(action);
+            close();
+        }
+
+        private void open() {
+            session = emf.unwrap(SessionFactory.class).openStatelessSession();
+            openSessions.add(session);
+            session.beginTransaction(); // PostgreSQL은 트랜잭션 안에서만 fetch size 단위로 읽는다
+            rows = session.createQuery(MEMBER_DTO_QUERY, MemberDto.class)
+                    .setParameter("fromId", fromId)
+                    .setParameter("toId", toId)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .stream()
+                    .iterator();
+        }
+
+        private void close() {
+            if (session != null && openSessions.remove(session)) {
+                MemberPartitionScanner.close(session);
+            }
+            session = null;
+            rows = Collections.emptyIterator();
+        }
+
+        @Override
+        public long estimateSize() {
+            return toId - fromId + 1;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -13,8 +13,11 @@ import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom{
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom,
+        MemberKeysetRepository, MemberPageRepository, MemberBatchRepository,
+        MemberLockRepository, MemberNamesRepository, MemberStatelessRepository {
 
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
@@ -27,19 +30,19 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m.username from Member m")
     public List<String> findUsernameList();
 
+    @Query("select m.username from Member m where m.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") List<String> names);
-
     List<Member> findListByUsername(String username); //컬렉션
 
     Member findMemberByUsername(String username); // 단건
 
     Optional<Member> findOptionalByUsername(String username); // Optional
 
-    Page<Member> findByUsername(String name, Pageable pageable); // count 쿼리 사용
+    // Page<Member> findByUsername(String name, Pageable pageable); // count 쿼리 사용 -> MemberPageRepository
 
     //    Slice<Member> findByUsername(String name, Pageable pageable); // count 쿼리 사용 안함
 //
@@ -48,12 +51,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findByUsername(String name, Sort sort);
 
 
-    @Query(value = "select m from Member m left join m.team t",
-            countQuery = "select count(m.username) from Member m")
-    Page<Member> findByAge(int age, Pageable pageable);
+    // findByAge(int, Pageable)는 count 캐시를 위해 MemberPageRepository로 옮김
 
     @Modifying(clearAutomatically = false)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update versioned Member m set m.age = m.age + 1 where m.age >= :age") // versioned: @Version도 증가
     int bulkAgePlus(@Param("age") int age);
 
     @Query("select m from Member m left join fetch m.team")
@@ -77,6 +78,21 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     List<UsernameOnlyDto> findProjectionsByUsername(@Param("username") String username);
 
+    <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type); // 동적 프로젝션
+
+    // UsernameOnly(open projection)와 같은 결과를 username, age, team.name 컬럼만 조회해서 만든다
+    @Query("select new study.datajpa.repository.UsernameOnlyView(m.username, m.age, t.name)" +
+            " from Member m left join m.team t where m.username = :username")
+    List<UsernameOnlyView> findUsernameOnlyByUsername(@Param("username") String username);
+
+    // 트랜잭션 안에서 사용하고 반드시 close 해야 한다
+    @QueryHints(value = {
+            @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")
+    })
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t order by m.id")
+    Stream<MemberDto> streamMemberDto();
+
 
 
 }
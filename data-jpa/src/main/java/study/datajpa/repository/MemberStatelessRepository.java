@@ -0,0 +1,23 @@
+package study.datajpa.repository;
+
+import study.datajpa.dto.MemberDto;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 분석 작업용 전체 회원 읽기. Hibernate StatelessSession으로 읽어서 영속성 컨텍스트, 스냅샷, 2차 캐시를 거치지 않고
+ * 행을 바로 MemberDto로 만든다. 별도 커넥션에서 읽으므로 호출한 트랜잭션의 커밋되지 않은 변경은 보이지 않는다.
+ */
+public interface MemberStatelessRepository {
+
+    /**
+     * MEMBER_ID 순. 커넥션을 잡고 있으므로 반드시 닫아야 한다. (try-with-resources)
+     */
+    Stream<MemberDto> streamAllMemberDto();
+
+    /**
+     * MEMBER_ID 순으로 한 행씩 action에 넘기고 읽은 행 수를 반환한다.
+     */
+    long forEachMemberDto(Consumer<MemberDto> action);
+}
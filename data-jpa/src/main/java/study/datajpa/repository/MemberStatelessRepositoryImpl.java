@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import study.datajpa.dto.MemberDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class MemberStatelessRepositoryImpl implements MemberStatelessRepository {
+
+    private static final String MEMBER_DTO_QUERY = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) "
+            + "from Member m left join m.team t order by m.id";
+
+    private final EntityManagerFactory emf; // 백그라운드에서 만들어지는 중일 수 있으므로 쓸 때 unwrap 한다
+    private final int fetchSize;
+
+    public MemberStatelessRepositoryImpl(EntityManagerFactory emf,
+                                         @Value("${datajpa.stateless.fetch-size:1000}") int fetchSize) {
+        this.emf = emf;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<MemberDto> streamAllMemberDto() {
+        StatelessSession session = open();
+        try {
+            return session.createQuery(MEMBER_DTO_QUERY, MemberDto.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .stream()
+                    .onClose(() -> close(session));
+        } catch (RuntimeException e) {
+            close(session);
+            throw e;
+        }
+    }
+
+    @Override
+    public long forEachMemberDto(Consumer<MemberDto> action) {
+        try (Stream<MemberDto> members = streamAllMemberDto()) {
+            long[] count = new long[1];
+            members.forEach(member -> {
+                action.accept(member);
+                count[0]++;
+            });
+            return count[0];
+        }
+    }
+
+    private StatelessSession open() {
+        StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession();
+        // autocommit이면 PostgreSQL 드라이버가 fetch size를 무시하고 전부 읽어 온다
+        session.beginTransaction();
+        return session;
+    }
+
+    private static void close(StatelessSession session) {
+        try {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback(); // 읽기만 했다
+            }
+        } finally {
+            session.close();
+        }
+    }
+}
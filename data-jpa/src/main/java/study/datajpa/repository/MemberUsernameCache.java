@@ -0,0 +1,48 @@
+package study.datajpa.repository;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 회원 id -> username read-through 캐시. 엔티티 대신 username만 담는다.
+ * Caffeine의 W-TinyLFU로 자주 조회되는 id만 남기고, 같은 id의 동시 miss는 쿼리 한 번으로 합쳐진다.
+ * 무효화는 {@link MemberUsernameInvalidator}가 담당한다.
+ */
+@Component
+public class MemberUsernameCache implements MeterBinder {
+
+    private final LoadingCache<Long, Optional<String>> cache;
+
+    public MemberUsernameCache(MemberRepository memberRepository,
+                               @Value("${datajpa.member-username-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${datajpa.member-username-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(memberRepository::findUsernameById);
+    }
+
+    public Optional<String> get(Long id) {
+        return cache.get(id);
+    }
+
+    public void evict(Long id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "member-username");
+    }
+}
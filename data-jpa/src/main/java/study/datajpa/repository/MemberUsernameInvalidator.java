@@ -0,0 +1,46 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member 저장/변경(setUsername 포함)/삭제 시 {@link MemberUsernameCache}에서 해당 id를 지운다.
+ * 커밋 전에 다른 요청이 옛 값을 다시 적재할 수 있으므로 커밋 후에 한 번 더 지운다.
+ */
+public class MemberUsernameInvalidator {
+
+    // EntityManagerFactory 생성 중에 만들어지므로 순환 참조를 피하려고 지연 조회한다
+    private final ObjectProvider<MemberUsernameCache> memberUsernameCache;
+
+    public MemberUsernameInvalidator(ObjectProvider<MemberUsernameCache> memberUsernameCache) {
+        this.memberUsernameCache = memberUsernameCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Member member) {
+        MemberUsernameCache cache = memberUsernameCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+
+        Long id = member.getId();
+        cache.evict(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(id);
+                }
+            });
+        }
+    }
+}
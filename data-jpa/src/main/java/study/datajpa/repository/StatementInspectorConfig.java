@@ -0,0 +1,31 @@
+package study.datajpa.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Hibernate에는 StatementInspector를 하나만 등록할 수 있으므로 빈으로 등록된 것들을 묶어서 넘긴다.
+ */
+@Configuration
+public class StatementInspectorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(List<StatementInspector> inspectors) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, compose(inspectors));
+    }
+
+    private StatementInspector compose(List<StatementInspector> inspectors) {
+        return sql -> {
+            String inspected = sql;
+            for (StatementInspector inspector : inspectors) {
+                inspected = inspector.inspect(inspected);
+            }
+            return inspected;
+        };
+    }
+}
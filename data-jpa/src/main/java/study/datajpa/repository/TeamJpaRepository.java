@@ -1,9 +1,12 @@
 package study.datajpa.repository;
 
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
+import study.datajpa.dto.AgeBucketDto;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.dto.TeamSummaryDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
-import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -36,6 +39,7 @@ public class TeamJpaRepository {
 
     public List<Team> findAll(){
         return em.createQuery("select t from Team t", Team.class)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
                 .getResultList();
     }
 
@@ -43,4 +47,41 @@ public class TeamJpaRepository {
         return em.createQuery("select count(Team) from Team t", Long.class)
                 .getSingleResult();
     }
+
+    /**
+     * 팀별 회원 수, 평균/최소/최대 나이. DB에서 group by 하므로 Team.members를 로딩하지 않는다.
+     */
+    public List<TeamStatsDto> findStats(){
+        return em.createQuery("select new study.datajpa.dto.TeamStatsDto(t.id, t.name, count(m), avg(m.age), min(m.age), max(m.age))" +
+                        " from Team t left join t.members m" +
+                        " group by t.id, t.name" +
+                        " order by t.id", TeamStatsDto.class)
+                .getResultList();
+    }
+
+    /**
+     * 팀별 나이 히스토그램. width살 단위 구간마다 회원 수. 회원이 없는 구간은 나오지 않는다.
+     */
+    public List<AgeBucketDto> findAgeHistogram(int width){
+        if (width < 1) {
+            throw new IllegalArgumentException("width는 1 이상이어야 합니다: " + width);
+        }
+        // group by 식과 select 식이 같아야 하므로 파라미터 대신 정수 리터럴로 넣는다
+        String bucket = "(m.age / " + width + ") * " + width;
+        return em.createQuery("select new study.datajpa.dto.AgeBucketDto(t.id, " + bucket + ", count(m))" +
+                        " from Member m left join m.team t" +
+                        " group by t.id, " + bucket +
+                        " order by t.id, " + bucket, AgeBucketDto.class)
+                .getResultList();
+    }
+
+    /**
+     * team_member_summary에서 읽는다. 팀 수에 비례하고 member 테이블을 읽지 않는다.
+     */
+    public List<TeamSummaryDto> findSummaries(){
+        return em.createQuery("select new study.datajpa.dto.TeamSummaryDto(t.id, t.name, coalesce(s.memberCount, 0L), coalesce(s.ageSum, 0L))" +
+                        " from Team t left join TeamMemberSummary s on s.teamId = t.id" +
+                        " order by t.id", TeamSummaryDto.class)
+                .getResultList();
+    }
 }
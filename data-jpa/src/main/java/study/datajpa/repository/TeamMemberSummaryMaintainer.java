@@ -0,0 +1,254 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * team_member_summary(팀별 회원 수, 나이 합계)를 Member insert/팀 변경/delete 때 증분으로 갱신한다.
+ * 트랜잭션 안의 변경을 팀별로 합쳐 두었다가 커밋 직전(flush 후) 같은 트랜잭션에서 팀마다 update 한 번만 한다.
+ * 롤백되면 아무것도 쓰지 않는다. 팀 id 순으로 갱신하므로 트랜잭션끼리 교착되지 않는다.
+ * <p>
+ * JPQL/JDBC 벌크 연산은 이벤트가 없으므로 반영되지 않는다. MemberBulkUpdateExecutor는 끝난 뒤 {@link #rebuild()}를
+ * 호출하지만, MemberRepository.bulkAgePlus 같은 @Modifying 쿼리 뒤에는 직접 rebuild() 해야 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.team-summary.enabled", havingValue = "true")
+public class TeamMemberSummaryMaintainer
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener, ApplicationRunner,
+        EventListenerContributor {
+
+    private static final String INSERT_SQL = "insert into team_member_summary (team_id, member_count, age_sum) values (?, 0, 0)";
+    private static final String UPDATE_SQL =
+            "update team_member_summary set member_count = member_count + ?, age_sum = age_sum + ? where team_id = ?";
+    private static final String DELETE_SQL = "delete from team_member_summary where team_id = ?";
+    private static final String CLEAR_SQL = "delete from team_member_summary";
+    private static final String REBUILD_SQL = "insert into team_member_summary (team_id, member_count, age_sum)"
+            + " select t.team_id, count(m.member_id), coalesce(sum(m.age), 0)"
+            + " from team t left join member m on m.team_id = t.team_id"
+            + " group by t.team_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager; // EMF보다 먼저 생성된다 (EventListenerContributor)
+    private final Map<SessionImplementor, Deltas> pending = new ConcurrentHashMap<>();
+
+    public TeamMemberSummaryMaintainer(JdbcTemplate jdbcTemplate,
+                                       ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public void contribute(EventListenerRegistry registry) {
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /**
+     * 시작할 때 이미 있는 데이터로 요약을 다시 만든다.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * member 테이블 전체를 group by 해서 요약을 다시 만든다. 동시에 들어온 증분과 겹칠 수 있으므로 쓰기가 적을 때 호출한다.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        Integer teams = new TransactionTemplate(transactionManager.getObject()).execute(status -> {
+            jdbcTemplate.update(CLEAR_SQL);
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        log.info("team_member_summary rebuilt for {} teams in {} ms", teams, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            deltas(event.getSession()).createdTeams.add((Long) event.getId());
+        } else if (event.getEntity() instanceof Member) {
+            Object[] state = event.getState();
+            deltas(event.getSession()).add(teamId(event.getPersister(), state, event.getSession()), 1, age(event.getPersister(), state));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            deltas(event.getSession()).rebuild = true; // 이전 값을 모르면 (merge 없이 update 등) 전체를 다시 만든다
+            return;
+        }
+
+        Long oldTeamId = teamId(persister, oldState, event.getSession());
+        Long newTeamId = teamId(persister, event.getState(), event.getSession());
+        int oldAge = age(persister, oldState);
+        int newAge = age(persister, event.getState());
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return;
+        }
+        Deltas deltas = deltas(event.getSession());
+        deltas.add(oldTeamId, -1, -oldAge);
+        deltas.add(newTeamId, 1, newAge);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            deltas(event.getSession()).deletedTeams.add((Long) event.getId());
+        } else if (event.getEntity() instanceof Member) {
+            Object[] state = event.getDeletedState();
+            deltas(event.getSession()).add(teamId(event.getPersister(), state, event.getSession()), -1, -age(event.getPersister(), state));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 세션(= 트랜잭션)마다 하나. 세션의 ActionQueue에만 등록하므로 REQUIRES_NEW로 열린 안쪽 트랜잭션(다른 세션)의 변경이
+     * 바깥 트랜잭션에 섞이지 않는다. 트랜잭션이 끝나면 (커밋이든 롤백이든) 지운다.
+     */
+    private Deltas deltas(EventSource session) {
+        return pending.computeIfAbsent(session, key -> {
+            Deltas deltas = new Deltas();
+            session.getActionQueue().registerProcess(deltas);
+            session.getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, completed) -> pending.remove(session));
+            return deltas;
+        });
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state, SessionImplementor session) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        Serializable id = session.getContextEntityIdentifier(team);
+        return id != null ? (Long) id : ((Team) team).getId();
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    private static class Deltas implements BeforeTransactionCompletionProcess {
+
+        private final Set<Long> createdTeams = new LinkedHashSet<>();
+        private final Set<Long> deletedTeams = new LinkedHashSet<>();
+        private final Map<Long, long[]> changes = new TreeMap<>(); // team id -> [회원 수, 나이 합계]
+        private boolean rebuild;
+
+        void add(Long teamId, int count, int ageSum) {
+            if (teamId == null) {
+                return;
+            }
+            long[] change = changes.computeIfAbsent(teamId, id -> new long[2]);
+            change[0] += count;
+            change[1] += ageSum;
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            session.doWork(this::apply);
+        }
+
+        private void apply(Connection connection) throws SQLException {
+            if (rebuild) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(CLEAR_SQL);
+                    statement.executeUpdate(REBUILD_SQL);
+                }
+                clear();
+                return;
+            }
+
+            changes.values().removeIf(change -> change[0] == 0 && change[1] == 0); // 같은 팀 안에서 나갔다 들어온 경우
+            if (!createdTeams.isEmpty()) {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                    for (Long teamId : createdTeams) {
+                        insert.setLong(1, teamId);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+            if (!changes.isEmpty()) {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+                    for (Map.Entry<Long, long[]> change : changes.entrySet()) {
+                        update.setLong(1, change.getValue()[0]);
+                        update.setLong(2, change.getValue()[1]);
+                        update.setLong(3, change.getKey());
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                }
+            }
+            if (!deletedTeams.isEmpty()) {
+                try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL)) {
+                    for (Long teamId : deletedTeams) {
+                        delete.setLong(1, teamId);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+            clear();
+        }
+
+        // 같은 트랜잭션에서 flush가 여러 번 일어나도 커밋 때 한 번만 적용된다. 다시 쓰이지 않도록 비운다
+        private void clear() {
+            createdTeams.clear();
+            deletedTeams.clear();
+            changes.clear();
+            rebuild = false;
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package study.datajpa.repository;
 
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import study.datajpa.entity.Team;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    @org.springframework.data.jpa.repository.QueryHints(@QueryHint(name = QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Team> findAll();
 }
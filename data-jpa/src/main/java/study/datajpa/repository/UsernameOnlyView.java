@@ -0,0 +1,29 @@
+package study.datajpa.repository;
+
+import java.util.StringJoiner;
+
+/**
+ * {@link UsernameOnly}의 SpEL(target.username + ' ' + target.age + ' ' + target.team.name)을
+ * 그대로 옮긴 구현체. JPQL 생성자 쿼리로 필요한 컬럼만 조회하므로 엔티티 전체 로딩, team 지연 로딩(N+1),
+ * 행마다 SpEL 평가가 없다.
+ */
+public class UsernameOnlyView implements UsernameOnly {
+
+    private final String username;
+
+    public UsernameOnlyView(String username, int age, String teamName) {
+        this.username = username + " " + age + " " + teamName;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", UsernameOnlyView.class.getSimpleName() + "[", "]")
+                .add("username='" + username + "'")
+                .toString();
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 배포 후 첫 요청의 지연시간을 한 번만 기록한다. warm-up 효과를 datajpa.warmup.duration과 함께 비교한다.
+ */
+@Slf4j
+@Component
+public class FirstRequestLatencyFilter extends OncePerRequestFilter {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final AtomicBoolean first = new AtomicBoolean(true);
+    private volatile long latencyNanos;
+
+    public FirstRequestLatencyFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!first.compareAndSet(true, false)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            latencyNanos = System.nanoTime() - start;
+            meterRegistry.ifAvailable(registry -> TimeGauge.builder("datajpa.first.request.latency", this,
+                    TimeUnit.NANOSECONDS, filter -> filter.latencyNanos).register(registry));
+            log.info("first request {} took {} ms", request.getRequestURI(), TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+        }
+    }
+}
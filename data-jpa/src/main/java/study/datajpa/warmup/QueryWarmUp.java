@@ -0,0 +1,158 @@
+package study.datajpa.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트래픽을 받기 전(ApplicationReadyEvent 전)에 쿼리를 미리 준비한다.
+ * <ol>
+ *     <li>레포지토리의 @Query(JPQL)와 @NamedQuery를 파싱해서 Hibernate 쿼리 플랜 캐시에 넣는다.</li>
+ *     <li>거기서 나온 SQL과 네이티브 @Query를 풀의 커넥션마다 prepare 해서 드라이버/DB 쪽 문장 캐시를 채운다.
+ *     (H2는 세션별 QUERY_CACHE_SIZE 캐시. PostgreSQL은 prepareThreshold번 실행해야 서버 prepare를 하므로 효과가 적다)</li>
+ * </ol>
+ * 기본 설정에서는 Hibernate의 NamedQuery 검사(hibernate.query.startup_check)와 Spring Data의 @Query 검증이
+ * 부트스트랩 중에 이미 플랜 캐시를 채우므로 1은 대부분 캐시 적중이다. 1은 그 검사를 끄거나 레포지토리를 lazy로 띄웠을 때,
+ * 그리고 2에서 prepare할 SQL을 얻기 위해 필요하다. 실제로 아끼는 것은 2의 첫 prepare 비용이다.
+ * 메소드 이름으로 만든 쿼리는 호출할 때 Criteria로 JPQL을 만들기 때문에 미리 준비할 수 없다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryWarmUp implements ApplicationRunner {
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int connections;
+
+    private volatile long durationNanos;
+
+    public QueryWarmUp(ListableBeanFactory beanFactory,
+                       EntityManagerFactory emf,
+                       DataSource dataSource,
+                       ObjectProvider<MeterRegistry> meterRegistry,
+                       @Value("${datajpa.warm-up.connections:0}") int connections) {
+        this.beanFactory = beanFactory;
+        this.emf = emf;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.connections = connections;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        long start = System.nanoTime();
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+
+        Set<String> jpql = new LinkedHashSet<>();
+        Set<String> sql = new LinkedHashSet<>();
+        collectRepositoryQueries(jpql, sql);
+        int repositoryQueries = jpql.size();
+        for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                jpql.add(namedQuery.query());
+            }
+        }
+
+        for (String query : jpql) {
+            try {
+                HQLQueryPlan plan = sessionFactory.getQueryPlanCache()
+                        .getHQLQueryPlan(query, false, Collections.emptyMap());
+                Collections.addAll(sql, plan.getSqlStrings());
+            } catch (RuntimeException e) {
+                log.warn("query warm-up skipped: {}", query, e);
+            }
+        }
+
+        int primed = prime(new ArrayList<>(sql));
+
+        durationNanos = System.nanoTime() - start;
+        meterRegistry.ifAvailable(registry -> TimeGauge.builder("datajpa.warmup.duration", this,
+                TimeUnit.NANOSECONDS, warmUp -> warmUp.durationNanos).register(registry));
+        log.info("query warm-up: {} repository JPQL, {} named, {} SQL prepared on {} connections in {} ms",
+                repositoryQueries, jpql.size() - repositoryQueries, sql.size(), primed,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+
+    private void collectRepositoryQueries(Set<String> jpql, Set<String> sql) {
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                if (query == null || query.value().isEmpty() || query.value().contains("#{")) {
+                    continue; // SpEL은 실행 시점에 바뀐다
+                }
+                (query.nativeQuery() ? sql : jpql).add(query.value());
+                if (!query.countQuery().isEmpty()) {
+                    (query.nativeQuery() ? sql : jpql).add(query.countQuery());
+                }
+            }
+        }
+    }
+
+    /**
+     * 커넥션을 동시에 빌려야 풀이 서로 다른 커넥션을 준다.
+     */
+    private int prime(List<String> sql) throws SQLException {
+        int count = connections > 0 ? connections : poolMinimumIdle();
+        List<Connection> borrowed = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = dataSource.getConnection();
+                borrowed.add(connection);
+                for (String statement : sql) {
+                    try (PreparedStatement ignored = connection.prepareStatement(statement)) {
+                        // prepare만 한다
+                    } catch (SQLException e) {
+                        log.debug("prepare skipped: {}", statement, e);
+                    }
+                }
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+        return borrowed.size();
+    }
+
+    private int poolMinimumIdle() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMinimumIdle();
+        } catch (SQLException e) {
+            return 1; // 라우팅 데이터소스 등 Hikari가 아니면 한 커넥션만
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package study.datajpa;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동시 클라이언트 수(1k~10k)별 /members 처리량과 p99 지연시간.
+ * 플랫폼 스레드: ./gradlew benchmark --tests '*MemberControllerLoadBenchmark'
+ * 가상 스레드(JDK 21): 위 명령에 -Dbenchmark.virtualThreads=true
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "datajpa.virtual-threads.enabled=${benchmark.virtualThreads:false}"
+})
+class MemberControllerLoadBenchmark {
+
+    private static final int[] CLIENTS = Arrays.stream(System.getProperty("benchmark.clients", "1000,5000,10000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.seconds", 30));
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void members() throws Exception {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            members.add(new Member("load" + i, i % 100, null));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        for (int clients : CLIENTS) {
+            run(client, clients);
+        }
+    }
+
+    private void run(HttpClient client, int clients) {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        List<CompletableFuture<Void>> loops = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            loops.add(loop(client, deadline, latencies, rejected, failed));
+        }
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        double seconds = DURATION.toMillis() / 1000.0;
+        System.out.printf("clients=%d requests=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms rejected(503)=%d failed=%d%n",
+                clients, sorted.length, sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), rejected.get(), failed.get());
+    }
+
+    private CompletableFuture<Void> loop(HttpClient client, long deadline, ConcurrentLinkedQueue<Long> latencies,
+                                         AtomicLong rejected, AtomicLong failed) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int page = ThreadLocalRandom.current().nextInt(100);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/members?page=" + page))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long start = System.nanoTime();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        failed.incrementAndGet();
+                    } else if (response.statusCode() == 503) {
+                        rejected.incrementAndGet();
+                    } else {
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, deadline, latencies, rejected, failed));
+    }
+
+    private double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
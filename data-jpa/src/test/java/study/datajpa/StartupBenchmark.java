@@ -0,0 +1,117 @@
+package study.datajpa;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 프로세스 시작부터 첫 /members 응답까지 걸린 시간(time-to-first-request).
+ * 기본 프로필, fast-start 프로필, fast-start + AppCDS(+C1만) 를 각각 별도 JVM으로 benchmark.startups번 띄운다.
+ * CDS 비교는 먼저 ./gradlew cdsArchive 를 실행해야 한다.
+ * 자식 JVM은 임시 디렉토리의 전용 파일 DB를 쓴다. (기본 프로필은 ddl-auto: create라 공용 ~/datajpa를 지운다)
+ * 스키마는 먼저 실행되는 기본 프로필이 만든다.
+ * ./gradlew benchmark --tests '*StartupBenchmark'
+ */
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int STARTUPS = Integer.getInteger("benchmark.startups", 5);
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    private String databaseUrl;
+
+    @Test
+    public void timeToFirstRequest() throws Exception {
+        Path database = Files.createTempDirectory("startup-benchmark");
+        databaseUrl = "jdbc:h2:file:" + database.resolve("datajpa").toAbsolutePath();
+        try {
+            measure("default", List.of(), List.of());
+            measure("fast-start", List.of(), List.of("--spring.profiles.active=fast-start"));
+
+            Path archive = Path.of(System.getProperty("benchmark.cdsArchive", "build/cds/data-jpa.jsa"));
+            if (Files.exists(archive)) {
+                measure("fast-start + AppCDS",
+                        List.of("-XX:SharedArchiveFile=" + archive, "-XX:TieredStopAtLevel=1"),
+                        List.of("--spring.profiles.active=fast-start"));
+            } else {
+                System.out.println("AppCDS archive not found (" + archive + "), run ./gradlew cdsArchive first");
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(database)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private void measure(String name, List<String> jvmArgs, List<String> appArgs) throws Exception {
+        long[] millis = new long[STARTUPS];
+        for (int i = 0; i < STARTUPS; i++) {
+            millis[i] = startAndRequest(jvmArgs, appArgs);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%s: time-to-first-request min %d ms, median %d ms, max %d ms (%d runs)%n",
+                name, millis[0], millis[STARTUPS / 2], millis[STARTUPS - 1], STARTUPS);
+    }
+
+    private long startAndRequest(List<String> jvmArgs, List<String> appArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("benchmark.appClasspath", System.getProperty("java.class.path")));
+        command.add(DataJpaApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--logging.level.root=warn");
+        command.add("--spring.datasource.url=" + databaseUrl);
+        command.addAll(appArgs);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/members?size=1")).build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "startup-benchmark.log"))
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException e) {
+                    // 아직 포트가 열리지 않았다
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("no response within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
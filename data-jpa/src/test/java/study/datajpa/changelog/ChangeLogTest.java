@@ -0,0 +1,87 @@
+package study.datajpa.changelog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 설정이 달라 컨텍스트를 새로 띄우면서 스키마를 다시 만들므로 다른 테스트와 같은 DB를 쓰지 않는다
+// username 컬럼(255자)으로는 payload가 4000자를 넘지 않으므로 잘라내는 길이를 줄여서 확인한다
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:change-log;DB_CLOSE_DELAY=-1",
+        "datajpa.change-log.enabled=true", "datajpa.change-log.flush-interval=50ms",
+        "datajpa.change-log.max-payload-length=" + ChangeLogTest.MAX_PAYLOAD_LENGTH})
+class ChangeLogTest {
+
+    static final int MAX_PAYLOAD_LENGTH = 400;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void committedChangesAreLogged() throws InterruptedException {
+        Team team = teamRepository.save(new Team("changeLogTeam"));
+        Member member = memberRepository.save(new Member("changeLog", 10, team));
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).get().setUsername("changeLog2"));
+
+        List<ChangeLog> logs = await("Member", member.getId(), 2);
+
+        assertThat(logs).extracting(ChangeLog::getOperation)
+                .containsExactly(ChangeEvent.Operation.INSERT, ChangeEvent.Operation.UPDATE);
+        assertThat(logs.get(0).getPayload()).contains("username=changeLog", "team=" + team.getId());
+        assertThat(logs.get(1).getPayload()).contains("username=changeLog2").doesNotContain("age=");
+        assertThat(await("Team", team.getId(), 1)).hasSize(1);
+    }
+
+    @Test
+    public void longPayloadIsTruncated() throws InterruptedException {
+        Member member = memberRepository.save(new Member("x".repeat(255), 10, null));
+
+        List<ChangeLog> logs = await("Member", member.getId(), 1);
+
+        assertThat(logs).hasSize(1);
+        assertThat(logs.get(0).getPayload()).hasSize(MAX_PAYLOAD_LENGTH).endsWith("...");
+    }
+
+    @Test
+    public void rolledBackChangesAreNotLogged() throws InterruptedException {
+        Long[] id = new Long[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            id[0] = memberRepository.saveAndFlush(new Member("changeLogRollback", 10, null)).getId();
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(300);
+        assertThat(changeLogRepository.findByEntityTypeAndEntityIdOrderByIdAsc("Member", String.valueOf(id[0])))
+                .isEmpty();
+    }
+
+    private List<ChangeLog> await(String entityType, Long id, int expected) throws InterruptedException {
+        // 비동기로 쓰이므로 잠시 기다린다
+        for (int i = 0; i < 100; i++) {
+            List<ChangeLog> logs = changeLogRepository.findByEntityTypeAndEntityIdOrderByIdAsc(entityType, String.valueOf(id));
+            if (logs.size() >= expected) {
+                return logs;
+            }
+            Thread.sleep(50);
+        }
+        return changeLogRepository.findByEntityTypeAndEntityIdOrderByIdAsc(entityType, String.valueOf(id));
+    }
+}
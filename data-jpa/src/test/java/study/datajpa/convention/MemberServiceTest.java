@@ -0,0 +1,51 @@
+package study.datajpa.convention;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 한 번에 하나만 커밋되는 최악의 경우에도 모든 스레드가 성공하려면 스레드 수만큼 시도해야 한다
+@SpringBootTest(properties = "datajpa.retry.max-attempts=" + MemberServiceTest.THREADS)
+class MemberServiceTest {
+
+    static final int THREADS = 8;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void changeUsernameRetriesOnOptimisticLock() throws Exception {
+        Member member = memberRepository.save(new Member("optimistic", 10, null));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Long version = memberRepository.findById(member.getId()).get().getVersion();
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String username = "optimistic" + i;
+                futures.add(executor.submit(() -> memberService.changeUsername(member.getId(), username)));
+            }
+            for (Future<?> future : futures) {
+                future.get(); // 충돌해도 재시도해서 모두 성공해야 한다
+            }
+
+            assertThat(memberRepository.findById(member.getId()).get().getVersion()).isEqualTo(version + THREADS);
+        } finally {
+            executor.shutdown();
+            memberRepository.deleteById(member.getId());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    HikariDataSource primary;
+    HikariDataSource replica;
+    ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        primary = h2("primary", 2);
+        replica = h2("replica", 1);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    public void writeGoesToPrimary() throws SQLException {
+        try (Connection connection = routingDataSource.getConnection()) {
+            assertThat(databaseOf(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    public void readOnlyGoesToReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (Connection connection = routingDataSource.getConnection()) {
+            assertThat(databaseOf(connection)).isEqualTo("replica");
+        }
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaExhausted() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (Connection held = replica.getConnection();
+             Connection connection = routingDataSource.getConnection()) {
+            assertThat(databaseOf(connection)).isEqualTo("primary");
+        }
+    }
+
+    private HikariDataSource h2(String name, int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setConnectionTimeout(250);
+        return dataSource;
+    }
+
+    private String databaseOf(Connection connection) throws SQLException {
+        return connection.getMetaData().getURL().substring("jdbc:h2:mem:".length()).split(";")[0];
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * open-in-view처럼 EntityManager 하나에서 읽기 트랜잭션 뒤에 쓰기 트랜잭션이 열리는 경우
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "datajpa.replica.enabled=true",
+        "datajpa.replica.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1"
+})
+class ReadWriteRoutingJpaTest {
+
+    @Autowired EntityManagerFactory emf;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired TeamRepository teamRepository;
+
+    @Test
+    public void writeAfterReadOnlyInSameEntityManagerGoesToPrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        Team team = new Team("routing");
+        try {
+            assertThat(readOnly.execute(status -> database(em))).containsIgnoringCase("routing-replica");
+
+            assertThat(write.execute(status -> {
+                em.persist(team);
+                em.flush();
+                return database(em);
+            })).containsIgnoringCase("routing-primary");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+            if (team.getId() != null) {
+                teamRepository.deleteById(team.getId());
+            }
+        }
+    }
+
+    private String database(EntityManager em) {
+        return (String) em.createNativeQuery("select database()").getSingleResult();
+    }
+}
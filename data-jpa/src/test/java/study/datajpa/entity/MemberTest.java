@@ -1,5 +1,6 @@
 package study.datajpa.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
@@ -52,4 +53,38 @@ class MemberTest {
         );
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void changeTeamKeepsBothSidesInSync(){
+        Team teamA = new Team("syncA");
+        Team teamB = new Team("syncB");
+        Member member = new Member("sync", 10, teamA);
+
+        member.changeTeam(teamB);
+
+        // 바이트코드 향상 여부와 상관없이 맞아야 한다
+        assertFalse(teamA.getMembers().contains(member));
+        assertEquals(List.of(member), teamB.getMembers());
+    }
+
+    @Test
+    public void changeTeamDoesNotLoadUninitializedSides(){
+        Team teamA = new Team("lazyA");
+        Team teamB = new Team("lazyB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("lazy", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Member found = em.find(Member.class, member.getId());
+        Team newTeam = em.find(Team.class, teamB.getId());
+
+        found.changeTeam(newTeam);
+
+        assertFalse(Hibernate.isInitialized(em.getReference(Team.class, teamA.getId()))); // 이전 팀 프록시
+        assertFalse(Hibernate.isInitialized(newTeam.getMembers()));
+        assertSame(newTeam, found.getTeam());
+    }
+}
@@ -5,6 +5,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
 
+import java.util.List;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -18,4 +21,34 @@ class ItemRepositoryTest {
         Item item = new Item("A");
         itemRepository.save(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void upsertAll(){
+        String id = UUID.randomUUID().toString();
+
+        itemRepository.upsertAll(List.of(new Item(id)));
+        Item inserted = itemRepository.findById(id).get();
+
+        itemRepository.upsertAll(List.of(new Item(id), new Item(id + "-2")));
+        Item upserted = itemRepository.findById(id).get();
+
+        assertNotNull(inserted.getCreatedBy());
+        assertEquals(inserted.getCreatedAt(), upserted.getCreatedAt());
+        assertEquals(inserted.getCreatedBy(), upserted.getCreatedBy());
+        assertTrue(itemRepository.existsById(id + "-2"));
+    }
+
+    @Test
+    public void auditorIsSharedWithinTransaction(){
+        String id = UUID.randomUUID().toString();
+
+        // saveAll은 트랜잭션 하나에서 실행되므로 감사자를 한 번만 만든다
+        itemRepository.saveAll(List.of(new Item(id + "-a"), new Item(id + "-b")));
+
+        Item a = itemRepository.findById(id + "-a").get();
+        Item b = itemRepository.findById(id + "-b").get();
+        assertNotNull(a.getCreatedBy());
+        assertEquals(a.getCreatedBy(), b.getCreatedBy());
+        assertEquals(a.getCreatedBy(), a.getLastModifiedBy());
+    }
+}
@@ -0,0 +1,65 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * saveAll vs saveAllBatched 처리량 비교. ./gradlew benchmark -Dbenchmark.rows=1000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.org.hibernate.SQL=info")
+class MemberBatchInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batchSize", 1_000);
+    private static final int TEAMS = 100;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void saveAll() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> memberRepository.saveAll(members("saveAll")));
+        report("saveAll", start);
+    }
+
+    @Test
+    public void saveAllBatched() {
+        long start = System.nanoTime();
+        long saved = memberRepository.saveAllBatched(members("batched"), BATCH_SIZE);
+        report("saveAllBatched", start);
+
+        assertThat(saved).isEqualTo(ROWS);
+    }
+
+    private List<Member> members(String prefix) {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAMS; i++) {
+            teams.add(new Team(prefix + "Team" + i));
+        }
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member(prefix + i, i % 100, teams.get(i % TEAMS)));
+        }
+        return members;
+    }
+
+    private void report(String name, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%s: %d rows in %.2fs (%.0f rows/sec)%n", name, ROWS, seconds, ROWS / seconds);
+    }
+}
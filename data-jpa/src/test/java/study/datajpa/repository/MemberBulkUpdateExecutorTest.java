@@ -0,0 +1,49 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberBulkUpdateExecutorTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberBulkUpdateExecutor memberBulkUpdateExecutor;
+
+    @Test
+    public void bulkAgePlusBySlice() {
+        // 다른 테스트 데이터와 겹치지 않는 나이 구간 (다른 테스트는 9000살 이상 회원을 만들지 않는다)
+        int age = 9000;
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("bulkSlice" + i, age + i - 5, null));
+        }
+        List<Member> saved = memberRepository.saveAll(members);
+        try {
+            List<BulkUpdateResult> progress = new ArrayList<>();
+            BulkUpdateResult result = memberBulkUpdateExecutor.bulkAgePlus(age, 3, 2, p -> {
+                synchronized (progress) {
+                    progress.add(p);
+                }
+            });
+
+            assertThat(result.getUpdatedRows()).isEqualTo(5);
+            assertThat(result.getCompletedSlices()).isEqualTo(result.getTotalSlices());
+            assertThat(progress).hasSize(result.getTotalSlices());
+            assertThat(memberRepository.findById(saved.get(9).getId()).get().getAge()).isEqualTo(age + 5);
+            assertThat(memberRepository.findById(saved.get(0).getId()).get().getAge()).isEqualTo(age - 5);
+        } finally {
+            // 커밋된 행이 다른 테스트의 count에 섞이지 않도록 지운다
+            memberRepository.deleteAllInBatch(saved);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 두 트랜잭션이 동시에 claim하는 경우. 다른 테스트가 커밋한 회원을 가져가지 않도록 DB를 따로 쓴다
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:member-claim;DB_CLOSE_DELAY=-1")
+class MemberClaimTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void concurrentClaimsAreDisjointAndNoWaitFailsImmediately() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("claim" + i, 10, null));
+        }
+
+        TransactionStatus first = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        List<Long> firstClaim;
+        List<Long> secondClaim;
+        try {
+            firstClaim = ids(memberRepository.claimNextMembers(2));
+            String lockedUsername = memberRepository.findById(firstClaim.get(0)).orElseThrow().getUsername();
+
+            // 두 번째 트랜잭션은 다른 스레드에서 첫 번째 트랜잭션이 잠근 행을 두고 실행한다
+            secondClaim = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+                List<Long> claimed = ids(memberRepository.claimNextMembers(2));
+
+                long start = System.nanoTime();
+                assertThatThrownBy(() -> memberRepository.lockByUsername(lockedUsername, Duration.ZERO))
+                        .isInstanceOf(PessimisticLockingFailureException.class);
+                assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+                status.setRollbackOnly(); // lockByUsername 실패로 어차피 롤백 전용이다
+                return claimed;
+            })).join();
+        } finally {
+            transactionManager.commit(first);
+        }
+
+        assertThat(firstClaim).hasSize(2);
+        assertThat(secondClaim).hasSize(2).doesNotContainAnyElementsOf(firstClaim);
+
+        // 첫 번째 트랜잭션의 claim은 커밋됐으므로 다시 가져가지 않고, 롤백된 두 번째 claim은 다시 가져간다
+        List<Long> thirdClaim = transactionTemplate.execute(status -> ids(memberRepository.claimNextMembers(5)));
+        assertThat(thirdClaim).hasSize(3).containsAll(secondClaim).doesNotContainAnyElementsOf(firstClaim);
+    }
+
+    private static List<Long> ids(List<Member> members) {
+        return members.stream().map(Member::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberPartitionScannerTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberPartitionScanner memberPartitionScanner;
+
+    @Test
+    public void scanPartitionsInParallel() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            members.add(new Member("partition" + i, i, null));
+        }
+        List<Member> saved = memberRepository.saveAll(members);
+        try {
+            List<Long> ordered = memberPartitionScanner.scan(4, stream -> stream.map(MemberDto::getId)
+                    .collect(Collectors.toList()));
+            long unordered = memberPartitionScanner.scan(4, stream -> stream.unordered()
+                    .filter(member -> member.getUsername().startsWith("partition"))
+                    .count());
+
+            assertThat(ordered).isSorted().doesNotHaveDuplicates().hasSize((int) memberRepository.count());
+            assertThat(unordered).isGreaterThanOrEqualTo(100);
+            assertThat(memberPartitionScanner.count(4)).isEqualTo(memberRepository.count());
+        } finally {
+            // 커밋된 행이 다른 테스트의 count에 섞이지 않도록 지운다
+            memberRepository.deleteAllInBatch(saved);
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package study.datajpa.repository;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.assertj.core.api.AssertionsForClassTypes;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -8,19 +14,30 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.metrics.LazyLoadDetector;
+import study.datajpa.warmup.QueryWarmUp;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.as;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -34,6 +51,21 @@ class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    MemberUsernameCache memberUsernameCache;
+
+    @Autowired
+    LazyLoadDetector lazyLoadDetector;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    QueryWarmUp queryWarmUp;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
     @PersistenceContext
     EntityManager em;
 
@@ -293,4 +325,285 @@ class MemberRepositoryTest {
 
         result.forEach(System.out::println);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void keysetPaging() {
+        int age = 77;
+        memberRepository.save(new Member("keyset1", age, null));
+        memberRepository.save(new Member("keyset2", age, null));
+        memberRepository.save(new Member("keyset2", age, null));
+        memberRepository.save(new Member("keyset3", age, null));
+        memberRepository.save(new Member("keyset4", age, null));
+        memberRepository.save(new Member(null, age, null)); // 어느 페이지에도 나오지 않는다
+
+        KeysetSlice<Member> first = memberRepository.findByAgeByKeyset(age, null, 2);
+        KeysetSlice<Member> second = memberRepository.findByAgeByKeyset(age, first.getNextCursor(), 2);
+        KeysetSlice<Member> last = memberRepository.findByAgeByKeyset(age, second.getNextCursor(), 2);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("keyset1", "keyset2");
+        assertThat(second.getContent()).extracting("username").containsExactly("keyset2", "keyset3");
+        assertThat(last.getContent()).extracting("username").containsExactly("keyset4");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // count 캐시는 커밋된 뒤에 비워진다
+    public void pagingCountCache() {
+        List<Member> saved = new ArrayList<>();
+        try {
+            saved.add(memberRepository.save(new Member("countCache", 10, null)));
+            saved.add(memberRepository.save(new Member("countCache", 10, null)));
+
+            PageRequest pageRequest = PageRequest.of(0, 1);
+            Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+            Page<Member> first = memberRepository.findByUsername("countCache", pageRequest);
+            long statementsBefore = statistics.getPrepareStatementCount();
+            Page<Member> cached = memberRepository.findByUsername("countCache", pageRequest);
+            long cachedStatements = statistics.getPrepareStatementCount() - statementsBefore;
+
+            saved.add(memberRepository.save(new Member("countCache", 10, null))); // 커밋되면서 count 캐시가 비워진다
+
+            Page<Member> invalidated = memberRepository.findByUsername("countCache", pageRequest);
+
+            // 롤백된 쓰기의 count는 자기 트랜잭션에서만 보이고 캐시에 남지 않는다
+            long[] inRolledBack = new long[1];
+            transactionTemplate.executeWithoutResult(status -> {
+                memberRepository.save(new Member("countCache", 10, null));
+                inRolledBack[0] = memberRepository.findByUsername("countCache", pageRequest).getTotalElements();
+                status.setRollbackOnly();
+            });
+            Page<Member> afterRollback = memberRepository.findByUsername("countCache", pageRequest);
+
+            assertThat(first.getTotalElements()).isEqualTo(2);
+            assertThat(cached.getTotalElements()).isEqualTo(2);
+            assertThat(cachedStatements).isEqualTo(1); // 내용 조회만 나가고 count는 캐시에서
+            assertThat(invalidated.getTotalElements()).isEqualTo(3);
+            assertThat(inRolledBack[0]).isEqualTo(4);
+            assertThat(afterRollback.getTotalElements()).isEqualTo(3);
+        } finally {
+            memberRepository.deleteAll(saved);
+        }
+    }
+
+    @Test
+    public void saveAllBatched() {
+        Team team = new Team("batchTeam");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            members.add(new Member("batch" + i, 88, team));
+        }
+
+        long saved = memberRepository.saveAllBatched(members, 10);
+
+        assertThat(saved).isEqualTo(25);
+        assertThat(team.getId()).isNotNull();
+        assertThat(memberRepository.findListByUsername("batch24")).hasSize(1);
+    }
+
+    @Test
+    public void streamMemberDto() {
+        Team team = new Team("streamTeam");
+        teamRepository.save(team);
+        memberRepository.save(new Member("stream1", 10, team));
+        memberRepository.save(new Member("stream2", 10, null));
+
+        em.flush();
+        em.clear();
+
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto()) {
+            List<String> usernames = stream.map(MemberDto::getUsername).collect(Collectors.toList());
+            assertThat(usernames).contains("stream1", "stream2");
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 커밋되지 않은 트랜잭션 안에서 적재한 항목은 같은 세션에서 읽을 수 없다
+    public void teamSecondLevelCache() {
+        Team team = teamRepository.save(new Team("cachedTeam"));
+        try {
+            teamRepository.findById(team.getId()); // 별도 트랜잭션에서 2차 캐시에 적재
+
+            Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            long hitsBefore = statistics.getDomainDataRegionStatistics("team").getHitCount();
+
+            teamRepository.findById(team.getId());
+
+            assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isEqualTo(hitsBefore + 1);
+        } finally {
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test
+    public void usernameCache() {
+        Member member = memberRepository.save(new Member("cachedName", 10, null));
+        em.flush();
+
+        assertThat(memberUsernameCache.get(member.getId())).contains("cachedName");
+
+        member.setUsername("renamed");
+        em.flush(); // @PostUpdate에서 캐시 무효화
+
+        assertThat(memberUsernameCache.get(member.getId())).contains("renamed");
+    }
+
+    @Test
+    public void closedProjection() {
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("projection1", 10, teamA));
+
+        em.flush();
+        em.clear();
+
+        List<UsernameOnly> open = memberRepository.findProjectionsByUsername("projection1", UsernameOnly.class);
+        List<UsernameOnlyView> closed = memberRepository.findUsernameOnlyByUsername("projection1");
+
+        assertThat(closed.get(0).getUsername()).isEqualTo(open.get(0).getUsername());
+    }
+
+    @Test
+    public void batchFetchTeam() {
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("batchFetchTeam" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("batchFetch", 10, team));
+        }
+
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll(); // 2차 캐시 없이 DB에서 지연 로딩
+
+        lazyLoadDetector.begin();
+        for (Member member : memberRepository.findListByUsername("batchFetch")) {
+            member.getTeam().getName();
+        }
+        int lazyStatements = lazyLoadDetector.end("batchFetchTeam");
+
+        assertThat(lazyStatements).isEqualTo(1); // @BatchSize로 team 5개를 select 한 번으로 초기화
+    }
+
+    @Test
+    public void repositoryMetrics() {
+        memberRepository.save(new Member("metrics", 10, null));
+        memberRepository.findUser("metrics", 10);
+
+        Timer timer = meterRegistry.find("datajpa.repository.invocations")
+                .tags("repository", "MemberRepository", "method", "findUser")
+                .timer();
+        DistributionSummary statements = meterRegistry.find("datajpa.repository.statements")
+                .tags("repository", "MemberRepository", "method", "findUser")
+                .summary();
+        Timer jdbc = meterRegistry.find("datajpa.repository.jdbc")
+                .tags("repository", "MemberRepository", "method", "findUser")
+                .timer();
+
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1); // auto flush insert + select
+        assertThat(jdbc.totalTime(TimeUnit.NANOSECONDS)).isGreaterThan(0); // ms 단위로 재면 1ms 미만 쿼리는 0
+    }
+
+    @Test
+    public void claimNextMembers() {
+        memberRepository.save(new Member("claim1", 10, null));
+        memberRepository.save(new Member("claim2", 10, null));
+        memberRepository.save(new Member("claim3", 10, null));
+
+        List<Member> claimed = memberRepository.claimNextMembers(2);
+
+        assertThat(claimed).hasSize(2);
+    }
+
+    @Test
+    public void lockWithTimeout() {
+        memberRepository.save(new Member("lockTimeout", 20, null));
+        em.flush();
+        em.clear();
+
+        List<Member> members = memberRepository.lockByUsername("lockTimeout", Duration.ofSeconds(1));
+        List<Member> noWait = memberRepository.lockByUsername("lockTimeout", Duration.ZERO); // 이미 이 트랜잭션이 잡은 잠금
+
+        assertThat(members).hasSize(1);
+        assertThat(noWait).hasSize(1);
+    }
+
+    @Test
+    public void findByNamesInChunksAndByArray() {
+        memberRepository.save(new Member("inListA", 10, null));
+        memberRepository.save(new Member("inListB", 10, null));
+
+        List<String> chunked = Stream.iterate(0, i -> i + 1).limit(2_000).map(i -> "inListMissing" + i)
+                .collect(Collectors.toCollection(ArrayList::new));
+        chunked.add("inListA");
+        chunked.add("inListB");
+        List<String> array = Stream.iterate(0, i -> i + 1).limit(20_000).map(i -> "inListMissing" + i)
+                .collect(Collectors.toCollection(ArrayList::new));
+        array.add("inListB");
+
+        assertThat(memberRepository.findByNames(chunked)).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("inListA", "inListB");
+        assertThat(memberRepository.findByNames(array)).extracting(Member::getUsername)
+                .containsExactly("inListB");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 배열 조회가 트랜잭션 밖에서 호출돼도 동작한다
+    public void findByNamesByArrayWithoutTransaction() {
+        Member member = memberRepository.save(new Member("inListNoTx", 10, null));
+        try {
+            List<String> array = Stream.iterate(0, i -> i + 1).limit(20_000).map(i -> "inListNoTxMissing" + i)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            array.add("inListNoTx");
+
+            assertThat(memberRepository.findByNames(array)).extracting(Member::getId)
+                    .containsExactly(member.getId());
+        } finally {
+            memberRepository.delete(member);
+        }
+    }
+
+    @Test
+    public void queriesAreWarmedUp() throws SQLException {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getQueryPlanCache().cleanup(); // 부트스트랩 중 NamedQuery/@Query 검증이 채운 플랜을 비운다
+        queryWarmUp.run(null);
+
+        Statistics statistics = sessionFactory.getStatistics();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        em.createNamedQuery("Member.findByUsername", Member.class)
+                .setParameter("username", "warmUp")
+                .getResultList();
+
+        assertThat(meterRegistry.find("datajpa.warmup.duration").timeGauge()).isNotNull();
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses); // warm-up이 다시 채웠다
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 별도 커넥션에서 읽으므로 먼저 커밋한다
+    public void readMemberDtoWithStatelessSession() {
+        Team team = teamRepository.save(new Team("statelessTeam"));
+        Member member = memberRepository.save(new Member("stateless", 10, team));
+        try {
+            List<MemberDto> found = new ArrayList<>();
+            long count = memberRepository.forEachMemberDto(dto -> {
+                if (dto.getId().equals(member.getId())) {
+                    found.add(dto);
+                }
+            });
+            long streamed;
+            try (Stream<MemberDto> stream = memberRepository.streamAllMemberDto()) {
+                streamed = stream.count();
+            }
+
+            assertThat(found).extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                    .containsExactly(tuple("stateless", "statelessTeam"));
+            assertThat(count).isEqualTo(streamed).isGreaterThanOrEqualTo(1);
+        } finally {
+            // 커밋된 행이 다른 테스트의 count에 섞이지 않도록 지운다
+            memberRepository.deleteById(member.getId());
+            teamRepository.deleteById(team.getId());
+        }
+    }
+}
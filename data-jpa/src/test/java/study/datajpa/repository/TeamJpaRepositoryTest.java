@@ -0,0 +1,107 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.AgeBucketDto;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.dto.TeamSummaryDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.tuple;
+
+// 설정이 달라 컨텍스트를 새로 띄우면서 스키마를 다시 만들므로 다른 테스트와 같은 DB를 쓰지 않는다
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:team-summary;DB_CLOSE_DELAY=-1",
+        "datajpa.team-summary.enabled=true"})
+class TeamJpaRepositoryTest {
+
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void statsAndSummary() {
+        Team teamA = teamRepository.save(new Team("statsA"));
+        Team teamB = teamRepository.save(new Team("statsB"));
+        Team empty = teamRepository.save(new Team("statsEmpty"));
+        memberRepository.saveAll(List.of(
+                new Member("stats1", 10, teamA),
+                new Member("stats2", 15, teamA),
+                new Member("stats3", 30, teamA)));
+        Member moved = memberRepository.save(new Member("stats4", 40, teamA));
+
+        // changeTeam과 delete도 요약에 반영된다
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(moved.getId()).get().changeTeam(teamRepository.findById(teamB.getId()).get()));
+        Member removed = memberRepository.save(new Member("stats5", 50, teamB));
+        memberRepository.deleteById(removed.getId());
+
+        TeamStatsDto statsA = stats(teamA.getId());
+        assertThat(statsA.getMemberCount()).isEqualTo(3);
+        assertThat(statsA.getAverageAge()).isCloseTo(55 / 3.0, offset(0.001));
+        assertThat(statsA.getMinAge()).isEqualTo(10);
+        assertThat(statsA.getMaxAge()).isEqualTo(30);
+        assertThat(stats(teamB.getId()).getMemberCount()).isEqualTo(1);
+        assertThat(stats(empty.getId()).getMemberCount()).isZero();
+
+        List<AgeBucketDto> histogram = teamJpaRepository.findAgeHistogram(10).stream()
+                .filter(bucket -> teamA.getId().equals(bucket.getTeamId()))
+                .collect(Collectors.toList());
+        assertThat(histogram).extracting(AgeBucketDto::getFromAge, AgeBucketDto::getMemberCount)
+                .containsExactly(tuple(10, 2L), tuple(30, 1L));
+
+        TeamSummaryDto summaryA = summary(teamA.getId());
+        assertThat(summaryA.getMemberCount()).isEqualTo(3);
+        assertThat(summaryA.getAverageAge()).isCloseTo(55 / 3.0, offset(0.001));
+        assertThat(summary(teamB.getId()).getMemberCount()).isEqualTo(1);
+        assertThat(summary(empty.getId()).getMemberCount()).isZero();
+    }
+
+    @Test
+    public void requiresNewChangesSurviveOuterRollback() {
+        Team team = teamRepository.save(new Team("summaryNested"));
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(outer -> {
+            memberRepository.saveAndFlush(new Member("summaryOuter", 20, teamRepository.findById(team.getId()).get()));
+            requiresNew.executeWithoutResult(inner ->
+                    memberRepository.save(new Member("summaryInner", 30, teamRepository.findById(team.getId()).get())));
+            outer.setRollbackOnly();
+        });
+
+        // 안쪽 트랜잭션의 커밋만 반영된다
+        assertThat(summary(team.getId()).getMemberCount()).isEqualTo(1);
+        assertThat(stats(team.getId()).getMemberCount()).isEqualTo(1);
+    }
+
+    private TeamStatsDto stats(Long teamId) {
+        return teamJpaRepository.findStats().stream()
+                .filter(stats -> stats.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private TeamSummaryDto summary(Long teamId) {
+        return teamJpaRepository.findSummaries().stream()
+                .filter(summary -> summary.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
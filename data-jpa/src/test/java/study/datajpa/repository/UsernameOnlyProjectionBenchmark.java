@@ -0,0 +1,88 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * open projection(UsernameOnly) vs 생성자 쿼리(UsernameOnlyView) 10k건당 지연시간/할당량 비교.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.org.hibernate.SQL=info")
+class UsernameOnlyProjectionBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+    private static final int ITERATIONS = 20;
+
+    private final String username = "projection-" + System.nanoTime();
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    public void setUp() {
+        Team team = new Team("projectionTeam");
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member(username, i, team));
+        }
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+
+    @Test
+    public void openProjection() {
+        measure("UsernameOnly (SpEL)", () -> memberRepository.findProjectionsByUsername(username, UsernameOnly.class));
+    }
+
+    @Test
+    public void constructorProjection() {
+        measure("UsernameOnlyView (JPQL)", () -> memberRepository.findUsernameOnlyByUsername(username));
+    }
+
+    private void measure(String name, Supplier<List<? extends UsernameOnly>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < ITERATIONS; i++) { // warm-up
+            run(query);
+        }
+
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(query);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        double allocated = (threads.getCurrentThreadAllocatedBytes() - bytes) / (double) ITERATIONS;
+
+        System.out.printf("%s: %d rows, %.2f ms/op, %.1f MB allocated/op%n", name, ROWS, millis, allocated / 1024 / 1024);
+    }
+
+    private void run(Supplier<List<? extends UsernameOnly>> query) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<? extends UsernameOnly> result = query.get();
+            result.forEach(UsernameOnly::getUsername);
+            assertThat(result).hasSize(ROWS);
+            em.clear();
+        });
+    }
+}